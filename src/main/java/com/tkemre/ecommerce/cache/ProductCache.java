@@ -0,0 +1,45 @@
+package com.tkemre.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Ürün detayları için bellek içi, boyut ve TTL ile sınırlı read-through cache.
+// Aynı anahtar için eşzamanlı cache miss'ler tek bir veritabanı sorgusunda birleşir (Caffeine compute).
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductDto> cache;
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets (hit/miss), cache.evictions, cache.size metrikleri
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    // Cache'te yoksa loader ile yükler; loader'ın fırlattığı istisnalar (ör. ProductNotFoundException) cache'lenmez
+    public ProductDto get(Long id, Function<Long, ProductDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    // İşlem commit olduktan sonra çalışır; işlem dışında yayınlanan olaylar için hemen çalışır
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidateAll(event.productIds());
+    }
+}
@@ -0,0 +1,172 @@
+package com.tkemre.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.dto.OrderItemDto;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.event.OrderDeletedEvent;
+import com.tkemre.ecommerce.event.OrderStatusChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Koşullu GET (If-None-Match) için ürün ve sipariş satır sürümlerinin (@Version) bellek içi cache'i.
+// Cache sıcakken eşleşen ETag'ler veritabanına gitmeden 304 ile yanıtlanır; değişiklik olayları commit sonrasında
+// ilgili girdileri siler. Ürün listeleri için ayrıca her ürün değişikliğinde artan bir katalog sürümü tutulur.
+// Sipariş yanıtı ürün (ad, kategori) ve adres satırlarını da gömdüğünden sipariş ETag'i satır sürümüne bu alanların
+// özetini ekler; ürün bilgisi değişince (stok hariç) hangi siparişlerin etkilendiği bilinmediği için tüm sipariş
+// girdileri silinir.
+@Component
+public class ResourceVersionCache {
+
+    private static final int STRIPES = 1024; // 2'nin kuvveti olmalı
+
+    // Katalog sayacı bellektedir ve yeniden başlatmada sıfırlanır; önek eski süreçten kalan ETag'lerle çakışmayı önler
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong orderGeneration = new AtomicLong(); // Tüm sipariş girdilerini geçersiz kılan değişiklikler
+
+    private final Cache<Long, Long> productVersions;
+    private final Cache<Long, CachedOrder> orderVersions;
+
+    // Yükleme ile olay arasındaki yarışı yakalamak için id şeritleri başına geçersiz kılma sayaçları:
+    // yüklemeden önce okunan sayaç yazmadan sonra değişmişse, yazılan sürüm eski olabilir ve silinir
+    private final AtomicLongArray productStamps = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray orderStamps = new AtomicLongArray(STRIPES);
+
+    // Sipariş yalnızca sahibine gösterildiğinden ETag, sahibin kullanıcı adıyla birlikte tutulur
+    private record CachedOrder(String username, String etag) {}
+
+    public ResourceVersionCache(@Value("${http.etag.version-cache.max-size:100000}") long maxSize,
+                                @Value("${http.etag.version-cache.ttl:10m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.productVersions = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.orderVersions = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productVersions, "product-versions");
+        CaffeineCacheMetrics.monitor(meterRegistry, orderVersions, "order-versions");
+    }
+
+    public static String productETag(Long productId, long version) {
+        return "\"product-" + productId + "-" + version + "\"";
+    }
+
+    // Satır sürümü yalnızca siparişin kendi sütunlarını izler; gömülü ürün ve adres alanları özetle eklenir.
+    // Ürün stok değişiklikleri (ürün satır sürümünü artırır) sipariş yanıtını değiştirmediği için ETag'i de değiştirmez.
+    public static String orderETag(OrderDto order) {
+        StringBuilder embedded = new StringBuilder().append(order.shippingAddress());
+        order.orderItems().stream()
+                .sorted(Comparator.comparing(OrderItemDto::id))
+                .forEach(embedded::append);
+        String digest = DigestUtils.md5DigestAsHex(embedded.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+        return "\"order-" + order.id() + "-" + order.version() + "-" + digest + "\"";
+    }
+
+    // Liste yanıtları için; çağıran sürümü listeyi yüklemeden ÖNCE okumalıdır (yükleme sırasında gelen değişiklik
+    // bir sonraki istekte farklı ETag üretir, eski içerik yeni ETag ile etiketlenmez)
+    public String catalogETag() {
+        return "\"catalog-" + bootId + "-" + catalogVersion.get() + "\"";
+    }
+
+    // Cache'te sürüm yoksa null döner; çağıran ürünü yükleyip putProduct ile cache'i ısıtır
+    public String cachedProductETag(Long productId) {
+        Long version = productVersions.getIfPresent(productId);
+        return version == null ? null : productETag(productId, version);
+    }
+
+    // Siparişin sahibi başka bir kullanıcıysa null döner (yükleme yolu 404 üretir)
+    public String cachedOrderETag(Long orderId, String username) {
+        CachedOrder cached = orderVersions.getIfPresent(orderId);
+        return cached == null || !cached.username().equals(username) ? null : cached.etag();
+    }
+
+    public long productStamp(Long productId) {
+        return productStamps.get(stripe(productId));
+    }
+
+    // İki sayaç da yalnızca artar; toplamları biri değiştiğinde değişir
+    public long orderStamp(Long orderId) {
+        return orderStamps.get(stripe(orderId)) + orderGeneration.get();
+    }
+
+    // stamp, ürün yüklenmeden önce productStamp ile okunmuş olmalıdır
+    public void putProduct(ProductDto product, long stamp) {
+        int stripe = stripe(product.id());
+        productVersions.put(product.id(), product.version());
+        if (productStamps.get(stripe) != stamp) {
+            productVersions.invalidate(product.id());
+        }
+    }
+
+    // stamp, sipariş yüklenmeden önce orderStamp ile okunmuş olmalıdır
+    public void putOrder(OrderDto order, long stamp) {
+        orderVersions.put(order.id(), new CachedOrder(order.username(), orderETag(order)));
+        if (orderStamp(order.id()) != stamp) {
+            orderVersions.invalidate(order.id());
+        }
+    }
+
+    // Katalog listesini başka bir kaynaktan (ör. gecikmeli yenilenen snapshot) değiştiren bileşenler için
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogVersion.incrementAndGet();
+        for (Long productId : event.productIds()) {
+            productStamps.incrementAndGet(stripe(productId));
+        }
+        productVersions.invalidateAll(event.productIds());
+        // Yeni ürün henüz bir siparişte yoktur; stok sipariş yanıtında yer almaz
+        if (event.type() == ProductChangedEvent.ChangeType.UPDATED || event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            orderGeneration.incrementAndGet();
+            orderVersions.invalidateAll();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        for (OrderStatusChangedEvent.OrderRef order : event.orders()) {
+            orderStamps.incrementAndGet(stripe(order.orderId()));
+            orderVersions.invalidate(order.orderId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderDeleted(OrderDeletedEvent event) {
+        orderStamps.incrementAndGet(stripe(event.orderId()));
+        orderVersions.invalidate(event.orderId());
+    }
+
+    // If-None-Match bir veya virgülle ayrılmış birden fazla ETag (ya da "*") içerebilir; zayıf karşılaştırma kullanılır
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+}
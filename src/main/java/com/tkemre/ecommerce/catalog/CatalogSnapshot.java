@@ -0,0 +1,117 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Ürün kataloğunun değişmez (immutable) bellek içi kopyası.
+// Her sıralama alanı için önceden sıralanmış diziler tutulur; okumalar kilitsizdir ve yalnızca istenen dilimi kopyalar.
+// Güncellemeler mevcut nesneyi değiştirmez, apply(...) ile yeni bir snapshot üretilir (copy-on-write).
+public final class CatalogSnapshot {
+
+    // Desteklenen sıralama alanları; eşit değerlerde id ile sıralanır (veritabanındaki keyset sırasıyla aynı)
+    private static final Map<String, Comparator<ProductDto>> COMPARATORS = Map.of(
+            "id", Comparator.comparing(ProductDto::id),
+            "name", Comparator.comparing(ProductDto::name).thenComparing(ProductDto::id),
+            "price", Comparator.comparing(ProductDto::price).thenComparing(ProductDto::id));
+
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(Map.of());
+
+    private final Map<Long, ProductDto> productsById;
+    private final Map<String, ProductDto[]> allSorted; // Tüm ürünler (GET /api/v1/products)
+    private final Map<String, Map<String, ProductDto[]>> activeByCategorySorted; // Kategori -> aktif ürünler
+
+    private CatalogSnapshot(Map<Long, ProductDto> productsById) {
+        this.productsById = productsById;
+        this.allSorted = sortAll(productsById.values());
+
+        Map<String, List<ProductDto>> activeByCategory = new HashMap<>();
+        for (ProductDto product : productsById.values()) {
+            if (Boolean.TRUE.equals(product.active())) {
+                activeByCategory.computeIfAbsent(product.category(), c -> new ArrayList<>()).add(product);
+            }
+        }
+        Map<String, Map<String, ProductDto[]>> byCategory = new HashMap<>();
+        activeByCategory.forEach((category, products) -> byCategory.put(category, sortAll(products)));
+        this.activeByCategorySorted = Collections.unmodifiableMap(byCategory);
+    }
+
+    public static CatalogSnapshot of(Collection<ProductDto> products) {
+        Map<Long, ProductDto> byId = new HashMap<>(products.size() * 2);
+        for (ProductDto product : products) {
+            byId.put(product.id(), product);
+        }
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId));
+    }
+
+    // Değişen ürünleri uygulayarak yeni bir snapshot döner; mevcut snapshot okuyucular için değişmeden kalır
+    public CatalogSnapshot apply(Collection<ProductDto> upserts, Set<Long> removedIds) {
+        Map<Long, ProductDto> byId = new HashMap<>(productsById);
+        removedIds.forEach(byId::remove);
+        for (ProductDto product : upserts) {
+            byId.put(product.id(), product);
+        }
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId));
+    }
+
+    public static boolean supports(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && COMPARATORS.containsKey(orders.get(0).getProperty());
+    }
+
+    public Page<ProductDto> allProducts(Pageable pageable) {
+        return slice(allSorted, pageable);
+    }
+
+    public Page<ProductDto> activeProductsByCategory(String category, Pageable pageable) {
+        return slice(activeByCategorySorted.getOrDefault(category, Map.of()), pageable);
+    }
+
+    public int size() {
+        return productsById.size();
+    }
+
+    private static Map<String, ProductDto[]> sortAll(Collection<ProductDto> products) {
+        Map<String, ProductDto[]> sorted = new HashMap<>();
+        COMPARATORS.forEach((field, comparator) -> {
+            ProductDto[] array = products.toArray(new ProductDto[0]);
+            Arrays.sort(array, comparator);
+            sorted.put(field, array);
+        });
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    private static Page<ProductDto> slice(Map<String, ProductDto[]> sortedViews, Pageable pageable) {
+        Sort.Order order = pageable.getSort().isSorted() ? pageable.getSort().toList().get(0) : Sort.Order.asc("id");
+        ProductDto[] sorted = sortedViews.get(order.getProperty());
+        if (sorted == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        int total = sorted.length;
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+        List<ProductDto> content = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            // Azalan sıralama aynı diziyi sondan okur
+            content.add(order.isAscending() ? sorted[i] : sorted[total - 1 - i]);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+}
@@ -0,0 +1,130 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.cache.ResourceVersionCache;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Herkese açık ürün listeleri için bellek içi katalog motoru (catalog.snapshot.enabled=true ile açılır).
+// Okuyucular AtomicReference'taki değişmez snapshot'ı kilitsiz okur; yazmalar yeni bir snapshot üretip atomik olarak değiştirir.
+@Service
+@ConditionalOnProperty(name = "catalog.snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotService {
+
+    // ON_WRITE: her değişiklik hemen uygulanır. INTERVAL: admin yazmaları hemen, sipariş kaynaklı stok değişiklikleri
+    // catalog.snapshot.refresh-interval aralıklarla toplu uygulanır.
+    public enum RefreshPolicy {
+        ON_WRITE,
+        INTERVAL
+    }
+
+    private final ProductRepository productRepository;
+    private final ResourceVersionCache resourceVersions;
+    private final RefreshPolicy refreshPolicy;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private boolean rebuilding; // this kilidiyle korunur
+
+    public CatalogSnapshotService(ProductRepository productRepository,
+                                  ResourceVersionCache resourceVersions,
+                                  @Value("${catalog.snapshot.refresh-policy:INTERVAL}") RefreshPolicy refreshPolicy) {
+        this.productRepository = productRepository;
+        this.resourceVersions = resourceVersions;
+        this.refreshPolicy = refreshPolicy;
+    }
+
+    // Snapshot henüz yüklenmediyse null döner; çağıran JPA yoluna düşer
+    public CatalogSnapshot snapshot() {
+        return current.get();
+    }
+
+    // Katalog id sırasıyla sayfa sayfa okunur (bkz. ProductPages); kilit yalnızca sayfa başına tutulur, olay
+    // dinleyicileri kurulum boyunca beklemez. Kurulum sürerken gelen değişiklikler bekletilir ve yeni snapshot
+    // yayınlandıktan sonra veritabanından yeniden okunarak uygulanır; sayfası önceden okunmuş bir ürün kaybolmaz.
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        synchronized (this) {
+            rebuilding = true;
+        }
+        try {
+            List<ProductDto> products = new ArrayList<>();
+            ProductPages.forEachPage(productRepository, this, page -> {
+                page.forEach(product -> products.add(toProductDto(product)));
+                return true;
+            });
+            synchronized (this) {
+                current.set(CatalogSnapshot.of(products));
+                resourceVersions.catalogChanged();
+            }
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+            }
+        }
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingIds.addAll(event.productIds());
+        if (refreshPolicy == RefreshPolicy.ON_WRITE || event.type() != ChangeType.STOCK_CHANGED) {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval:PT5S}")
+    public void refreshPending() {
+        if (!pendingIds.isEmpty()) {
+            refresh();
+        }
+    }
+
+    // Tek yazıcı: bekleyen id'leri veritabanından okuyup yeni snapshot'ı üretir ve atomik olarak yayınlar
+    private synchronized void refresh() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null || rebuilding) {
+            return; // Kurulum sürüyor; bekleyen id'ler reload() sonunda uygulanır
+        }
+
+        Set<Long> ids = new HashSet<>(pendingIds);
+        pendingIds.removeAll(ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<ProductDto> upserts = productRepository.findAllById(ids).stream().map(this::toProductDto).toList();
+        Set<Long> removed = new HashSet<>(ids);
+        upserts.forEach(product -> removed.remove(product.id()));
+        current.set(snapshot.apply(upserts, removed));
+        // INTERVAL modunda liste olaydan sonra değişir; katalog ETag'i yeni snapshot'ı da yansıtmalı
+        resourceVersions.catalogChanged();
+    }
+
+    private ProductDto toProductDto(Product product) {
+        return ProductDto.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .category(product.getCategory())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .active(product.getActive())
+                .version(product.getVersion())
+                .build();
+    }
+}
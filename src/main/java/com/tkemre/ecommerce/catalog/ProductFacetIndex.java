@@ -0,0 +1,306 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Kategori, fiyat aralığı, stok ve aktiflik için sıkıştırılmış bitmap (RoaringBitmap) tabanlı faset indeksi.
+// Her ürüne yoğun bir int doküman numarası verilir; her faset değeri bu numaraların bir bitmap'idir.
+// Filtreleme aynı faset içinde OR, fasetler arasında AND ile yapılır; faset sayıları tek geçişte
+// andCardinality ile bellekten hesaplanır (faset başına COUNT sorgusu yoktur).
+// catalog.facets.enabled=true ile açılır; kapalıyken filtreleme veritabanında yapılır ve faset sayıları dönmez.
+@Component
+@ConditionalOnProperty(name = "catalog.facets.enabled", havingValue = "true")
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String IN_STOCK = "inStock";
+    public static final String ACTIVE = "active";
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] priceBounds; // Artan sıralı fiyat aralığı alt sınırları
+    private final String[] priceBandLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> docsByProductId = new HashMap<>();
+    private long[] productIds = new long[1024]; // doküman numarası -> ürün id
+    private String[] docCategories = new String[1024]; // Güncellemede eski kategori bitmap'inden çıkarmak için
+    private int nextDoc;
+    private Long scanPosition; // Kurulum sürerken en son taranan ürün id'si; kurulum yokken null
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> categories = new TreeMap<>();
+    private final RoaringBitmap[] priceBands;
+
+    public record FacetResult(List<Long> productIds, int total, Map<String, Map<String, Integer>> facets) {}
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${catalog.facets.price-bands:0,50,100,250,500,1000}") String[] priceBands) {
+        this.productRepository = productRepository;
+        this.priceBounds = Arrays.stream(priceBands).map(String::trim).map(BigDecimal::new).sorted().toArray(BigDecimal[]::new);
+        this.priceBandLabels = new String[priceBounds.length];
+        this.priceBands = new RoaringBitmap[priceBounds.length];
+        for (int i = 0; i < priceBounds.length; i++) {
+            priceBandLabels[i] = i + 1 < priceBounds.length
+                    ? priceBounds[i].toPlainString() + "-" + priceBounds[i + 1].toPlainString()
+                    : priceBounds[i].toPlainString() + "+";
+            this.priceBands[i] = new RoaringBitmap();
+        }
+    }
+
+    // Doküman numaraları id sırasıyla verilir; böylece bitmap sırası ürün id sırasıdır. Katalog sayfa sayfa yüklenir.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                docsByProductId.clear();
+                nextDoc = 0;
+                live.clear();
+                inStock.clear();
+                active.clear();
+                categories.clear();
+                Arrays.stream(priceBands).forEach(RoaringBitmap::clear);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            scanPosition = 0L;
+        }
+        ProductPages.forEachPage(productRepository, this, products -> {
+            apply(products.stream().map(Product::getId).toList(), products);
+            scanPosition = products.size() < ProductPages.PAGE_SIZE ? null : products.get(products.size() - 1).getId();
+            return true;
+        });
+    }
+
+    // Stok değişiklikleri de "stokta var" fasetini etkiler; yalnızca değişen ürünler yeniden indekslenir
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Collection<Long> ids = event.productIds();
+        if (scanPosition != null) {
+            // Kurulum sürüyor: henüz taranmamış id'ler sırası gelince sayfadan okunur. Şimdi eklenselerse doküman
+            // numaraları id sırasını bozardı.
+            long position = scanPosition;
+            ids = ids.stream().filter(id -> id <= position).toList();
+            if (ids.isEmpty()) {
+                return;
+            }
+        }
+        apply(ids, productRepository.findAllById(ids));
+    }
+
+    public FacetResult search(ProductFacetFilter filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // Her faset için seçili değerlerin OR'u (seçim yoksa null: faset filtrelemez)
+            Map<String, RoaringBitmap> selections = new LinkedHashMap<>();
+            selections.put(CATEGORY, union(filter.categories(), categories::get));
+            selections.put(PRICE_BAND, union(filter.priceBands(), this::priceBand));
+            selections.put(IN_STOCK, flag(inStock, filter.inStock()));
+            selections.put(ACTIVE, flag(active, filter.active()));
+
+            RoaringBitmap matched = intersect(selections, null);
+
+            // Bir faset değerinin sayısı, o fasetin kendi seçimi hariç diğer tüm filtrelerle hesaplanır;
+            // böylece istemci aynı fasette başka bir değer seçerse kaç sonuç alacağını görür
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            RoaringBitmap base = intersect(selections, CATEGORY);
+            Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+            categories.forEach((category, bitmap) -> putCount(categoryCounts, category, bitmap, base));
+            facets.put(CATEGORY, categoryCounts);
+
+            RoaringBitmap priceBase = intersect(selections, PRICE_BAND);
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            for (int i = 0; i < priceBands.length; i++) {
+                putCount(priceCounts, priceBandLabels[i], priceBands[i], priceBase);
+            }
+            facets.put(PRICE_BAND, priceCounts);
+            facets.put(IN_STOCK, flagCounts(inStock, intersect(selections, IN_STOCK)));
+            facets.put(ACTIVE, flagCounts(active, intersect(selections, ACTIVE)));
+
+            return new FacetResult(page(matched, offset, limit), matched.getCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Verilen id'lerden hâlâ var olanları id sırasıyla ekler/günceller, silinenleri kaldırır
+    private void apply(Collection<Long> productIds, List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> deleted = new HashSet<>(productIds);
+            products.stream().sorted(Comparator.comparing(Product::getId)).forEach(product -> {
+                deleted.remove(product.getId());
+                add(product);
+            });
+            deleted.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Çağıran write lock'u tutmalıdır; güncellenen ürün doküman numarasını (ve dolayısıyla sırasını) korur
+    private void add(Product product) {
+        Integer existing = docsByProductId.get(product.getId());
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            clear(doc);
+        } else {
+            doc = nextDoc++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                docCategories = Arrays.copyOf(docCategories, doc * 2);
+            }
+            productIds[doc] = product.getId();
+            docsByProductId.put(product.getId(), doc);
+        }
+        docCategories[doc] = product.getCategory();
+
+        live.add(doc);
+        categories.computeIfAbsent(product.getCategory(), c -> new RoaringBitmap()).add(doc);
+        priceBands[bandOf(product.getPrice())].add(doc);
+        if (product.getStock() != null && product.getStock() > 0) {
+            inStock.add(doc);
+        }
+        if (Boolean.TRUE.equals(product.getActive())) {
+            active.add(doc);
+        }
+    }
+
+    // Çağıran write lock'u tutmalıdır
+    private void remove(Long productId) {
+        Integer doc = docsByProductId.remove(productId);
+        if (doc != null) {
+            clear(doc);
+        }
+    }
+
+    private void clear(int doc) {
+        live.remove(doc);
+        inStock.remove(doc);
+        active.remove(doc);
+        for (RoaringBitmap band : priceBands) {
+            band.remove(doc);
+        }
+        String category = docCategories[doc];
+        RoaringBitmap categoryBitmap = categories.get(category);
+        categoryBitmap.remove(doc);
+        if (categoryBitmap.isEmpty()) {
+            categories.remove(category);
+        }
+        docCategories[doc] = null;
+    }
+
+    private int bandOf(BigDecimal price) {
+        for (int i = priceBounds.length - 1; i > 0; i--) {
+            if (price.compareTo(priceBounds[i]) >= 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private RoaringBitmap priceBand(String label) {
+        for (int i = 0; i < priceBandLabels.length; i++) {
+            if (priceBandLabels[i].equals(label)) {
+                return priceBands[i];
+            }
+        }
+        return null;
+    }
+
+    private static RoaringBitmap union(Set<String> values, Function<String, RoaringBitmap> lookup) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (String value : values) {
+            RoaringBitmap bitmap = lookup.apply(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap flag(RoaringBitmap trueBitmap, Boolean value) {
+        if (value == null) {
+            return null;
+        }
+        return value ? trueBitmap : RoaringBitmap.andNot(live, trueBitmap);
+    }
+
+    // excludedFacet dışındaki tüm seçimlerin AND'i; hiç seçim yoksa tüm canlı dokümanlar
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> selections, String excludedFacet) {
+        RoaringBitmap result = live.clone();
+        selections.forEach((facet, selection) -> {
+            if (selection != null && !facet.equals(excludedFacet)) {
+                result.and(selection);
+            }
+        });
+        return result;
+    }
+
+    private static void putCount(Map<String, Integer> counts, String value, RoaringBitmap bitmap, RoaringBitmap base) {
+        counts.put(value, (int) RoaringBitmap.andCardinality(bitmap, base));
+    }
+
+    private static Map<String, Integer> flagCounts(RoaringBitmap trueBitmap, RoaringBitmap base) {
+        int trueCount = (int) RoaringBitmap.andCardinality(trueBitmap, base);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("true", trueCount);
+        counts.put("false", base.getCardinality() - trueCount);
+        return counts;
+    }
+
+    private List<Long> page(RoaringBitmap matched, int offset, int limit) {
+        if (offset >= matched.getCardinality() || limit <= 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(limit);
+        PeekableIntIterator iterator = matched.getIntIterator();
+        iterator.advanceIfNeeded(matched.select(offset));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add(productIds[iterator.next()]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+// Bellek içi indekslerin yeniden kurulumu için ürün tablosunu id sırasıyla keyset sayfaları halinde okur.
+// Her sayfa ayrı, kısa bir okumadır; tüm katalog tek bir persistence context'e yüklenmez.
+final class ProductPages {
+
+    static final int PAGE_SIZE = 1000;
+
+    private ProductPages() {
+    }
+
+    // Her sayfanın okunması ve uygulanması monitor kilidi altında yapılır. İndeksin olay dinleyicisi de aynı kilidi
+    // tuttuğundan sayfalar ve ürün değişiklikleri sırayla uygulanır: sonra uygulanan, veritabanından daha sonra okunmuştur.
+    // handler false dönerse tarama erken biter (ör. bellek bütçesi dolduğunda).
+    static void forEachPage(ProductRepository productRepository, Object monitor, Predicate<List<Product>> handler) {
+        long lastId = 0;
+        List<Product> page;
+        do {
+            synchronized (monitor) {
+                page = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(PAGE_SIZE));
+                if (!handler.test(page)) {
+                    return;
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+}
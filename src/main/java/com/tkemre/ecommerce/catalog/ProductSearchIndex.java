@@ -0,0 +1,326 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ürün adı ve kategorisi üzerinde gömülü tam metin arama indeksi (inverted index + BM25 sıralama).
+// Sıralı terim sözlüğü önek (prefix) aramasını, silme-komşuluğu (deletion neighbourhood) indeksi ise
+// tek karakterlik yazım hatalarını (edit distance 1) tolere etmeyi sağlar.
+// Yalnızca aktif ürünler indekslenir; indeks ürün değişikliklerinde yeniden kurulmaz, değişen ürünler güncellenir.
+// catalog.search.enabled=true ile açılır; kapalıyken arama ad üzerinde basit bir veritabanı sorgusuyla yapılır.
+@Component
+@ConditionalOnProperty(name = "catalog.search.enabled", havingValue = "true")
+public class ProductSearchIndex {
+
+    // BM25 parametreleri
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Ad eşleşmeleri kategori eşleşmelerinden daha değerlidir (terim frekansına ağırlık olarak eklenir)
+    private static final int NAME_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+
+    // Tam eşleşmeye göre önek ve yazım hatalı eşleşmelerin skor çarpanları
+    private static final double PREFIX_BOOST = 0.7;
+    private static final double FUZZY_BOOST = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>(); // terim -> (ürün id -> ağırlıklı frekans)
+    private final Map<String, Set<String>> deletes = new HashMap<>(); // tek harfi silinmiş varyant -> terimler
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>(); // ürün id -> terim frekansları
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    public record SearchResult(List<Long> productIds, long total) {}
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Katalog sayfa sayfa yüklenir; kurulum sürerken gelen değişiklikler sayfalarla sırayla uygulanır (bkz. ProductPages)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            deletes.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ProductPages.forEachPage(productRepository, this,
+                products -> {
+                    apply(products.stream().map(Product::getId).toList(), products);
+                    return true;
+                });
+    }
+
+    // Ad ve kategori stoktan bağımsızdır; stok değişiklikleri indekse dokunmaz
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+        apply(event.productIds(), productRepository.findAllById(event.productIds()));
+    }
+
+    // Sorgudaki her terim (tam, önek veya yazım hatalı olarak) eşleşmeli; sonuçlar BM25 skoruna göre sıralanır
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = scoreTerm(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND: önceki terimlerle eşleşmeyen ürünler elenir
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            merged.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+            return new SearchResult(topK(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Verilen id'lerin dokümanlarını kaldırır ve hâlâ var olan ürünleri yeniden indeksler
+    private void apply(Collection<Long> productIds, List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::removeDocument);
+            products.forEach(this::indexProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Küçük harfe çevirir, aksanları atar ve harf/rakam dışındaki karakterlerden böler
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replace('ı', 'i')
+                .replaceAll("\\p{M}", "");
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Çağıran write lock'u tutmalıdır
+    private void indexProduct(Product product) {
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(product.getName()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getCategory()).forEach(term -> frequencies.merge(term, CATEGORY_WEIGHT, Integer::sum));
+
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(product.getId(), frequencies);
+        documentLengths.put(product.getId(), length);
+        totalLength += length;
+
+        frequencies.forEach((term, frequency) -> {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(term, termPostings);
+                deletesOf(term).forEach(variant -> deletes.computeIfAbsent(variant, v -> new HashSet<>()).add(term));
+            }
+            termPostings.put(product.getId(), frequency);
+        });
+    }
+
+    // Çağıran write lock'u tutmalıdır
+    private void removeDocument(Long productId) {
+        Map<String, Integer> frequencies = documents.remove(productId);
+        if (frequencies == null) {
+            return;
+        }
+        totalLength -= documentLengths.remove(productId);
+
+        for (String term : frequencies.keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                for (String variant : deletesOf(term)) {
+                    Set<String> terms = deletes.get(variant);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        deletes.remove(variant);
+                    }
+                }
+            }
+        }
+    }
+
+    // Bir sorgu terimi için eşleşen her ürünün en iyi skoru (tam > önek > yazım hatalı)
+    private Map<Long, Double> scoreTerm(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        Map<Long, Integer> exact = postings.get(queryTerm);
+        if (exact != null) {
+            addScores(scores, exact, 1.0);
+        }
+
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Integer>> entry
+                    : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                addScores(scores, entry.getValue(), PREFIX_BOOST);
+            }
+        }
+
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(queryTerm)) {
+                addScores(scores, postings.get(term), FUZZY_BOOST);
+            }
+        }
+        return scores;
+    }
+
+    private void addScores(Map<Long, Double> scores, Map<Long, Integer> termPostings, double boost) {
+        int documentCount = documents.size();
+        double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+        int documentFrequency = termPostings.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+        termPostings.forEach((productId, frequency) -> {
+            double norm = K1 * (1 - B + B * documentLengths.get(productId) / averageLength);
+            double score = boost * idf * frequency * (K1 + 1) / (frequency + norm);
+            scores.merge(productId, score, Math::max);
+        });
+    }
+
+    // Sorgu teriminden tek düzenleme (ekleme, silme, değiştirme) uzaklıktaki indeks terimleri
+    private Set<String> fuzzyCandidates(String queryTerm) {
+        Set<String> candidates = new HashSet<>();
+        // Eklenmiş harf: sorgudan bir harf silinince indeks terimi elde edilir
+        for (String variant : deletesOf(queryTerm)) {
+            if (postings.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            // Değiştirilmiş harf: aynı konumdan bir harf silinince ikisi eşitlenir
+            Set<String> terms = deletes.get(variant);
+            if (terms != null) {
+                terms.stream().filter(term -> term.length() == queryTerm.length()).forEach(candidates::add);
+            }
+        }
+        // Eksik harf: indeks teriminden bir harf silinince sorgu elde edilir
+        Set<String> longer = deletes.get(queryTerm);
+        if (longer != null) {
+            candidates.addAll(longer);
+        }
+        candidates.remove(queryTerm);
+        candidates.removeIf(term -> !withinOneEdit(queryTerm, term));
+        return candidates;
+    }
+
+    private static Set<String> deletesOf(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    // Aynı uzunluktaki terimler farklı konumlardan silinerek eşleşmiş olabilir; tek değişiklik olduğunu doğrular
+    private static boolean withinOneEdit(String a, String b) {
+        if (a.length() != b.length()) {
+            return true; // Uzunluk farkı 1 ve silme varyantı eşleşmesi tek ekleme/silmeyi garanti eder
+        }
+        int differences = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i) && ++differences > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tüm eşleşmeleri sıralamak yerine offset + limit boyutunda bir min-heap ile en iyi sonuçlar seçilir
+    private static List<Long> topK(Map<Long, Double> scores, int offset, int limit) {
+        int k = offset + limit;
+        if (k <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        // Eşit skorlarda küçük id önce gelir
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (ranking.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking.reversed());
+        return ranked.subList(Math.min(offset, ranked.size()), ranked.size()).stream().map(Map.Entry::getKey).toList();
+    }
+}
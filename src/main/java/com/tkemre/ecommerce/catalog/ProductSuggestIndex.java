@@ -0,0 +1,405 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.OrderItemRepository;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Ürün adları için otomatik tamamlama (typeahead) trie'si.
+// Her düğüm alt ağacındaki en yüksek popülerliği tutar; böylece bir önek için en popüler k ad,
+// tüm alt ağacı gezmeden best-first aramayla bulunur. Popülerlik, OrderItem satış adetlerinden gelir.
+// catalog.suggest.enabled=true ile açılır; kapalıyken öneriler ad öneki üzerinde bir veritabanı sorgusuyla bulunur.
+@Component
+@ConditionalOnProperty(name = "catalog.suggest.enabled", havingValue = "true")
+public class ProductSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    // Bellek tahmini için yaklaşık nesne boyutları (64-bit JVM, sıkıştırılmış referanslar)
+    private static final int NODE_BYTES = 48;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int CHILD_BYTES = 2 + 4; // char anahtar + Node referansı
+    private static final int STRING_BYTES = 40; // String + byte[] başlıkları
+    private static final int MAP_ENTRY_BYTES = 64; // id -> anahtar eşlemesindeki HashMap girdisi + Long
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final int maxEntries;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> keysById = new HashMap<>(); // Yeniden adlandırma/silme için ürün id -> trie anahtarı
+    private Node root = new Node();
+    private long nodeCount = 1;
+    private long childCount;
+    private long nameChars;
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               OrderItemRepository orderItemRepository,
+                               @Value("${catalog.suggest.max-entries:2000000}") int maxEntries,
+                               MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.maxEntries = maxEntries;
+        Gauge.builder("catalog.suggest.entries", this, ProductSuggestIndex::size).register(meterRegistry);
+        Gauge.builder("catalog.suggest.memory", this, ProductSuggestIndex::estimatedBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    // Bütçe aşılırsa en çok satan ürünler tutulur: önce satışı olan ürünler popülerlik sırasıyla, ardından
+    // kalan ürünler id sırasıyla sayfa sayfa eklenir. Kurulum sürerken gelen değişiklikler sayfalarla sırayla uygulanır.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Long> popularity = loadPopularity();
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            nodeCount = 1;
+            childCount = 0;
+            nameChars = 0;
+            keysById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Long> popular = new ArrayList<>(popularity.keySet());
+        popular.sort(Comparator.comparing(popularity::get).reversed());
+        boolean full = false;
+        for (int from = 0; from < popular.size() && !full; from += ProductPages.PAGE_SIZE) {
+            List<Long> ids = popular.subList(from, Math.min(from + ProductPages.PAGE_SIZE, popular.size()));
+            synchronized (this) {
+                List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+                products.sort(Comparator.comparing((Product product) -> popularity.get(product.getId())).reversed());
+                full = !upsert(products, popularity::get);
+            }
+        }
+        if (!full) {
+            ProductPages.forEachPage(productRepository, this, products -> upsert(products.stream()
+                    .filter(product -> !popularity.containsKey(product.getId()))
+                    .toList(), id -> 0L));
+        }
+        log.info("Suggest index built: {} entries, ~{} bytes/entry", size(), bytesPerEntry());
+    }
+
+    // Ad değişmeyen stok güncellemeleri trie'yi etkilemez
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+        List<Product> products = productRepository.findAllById(event.productIds());
+        lock.writeLock().lock();
+        try {
+            Map<Long, Long> previous = new HashMap<>();
+            for (Long id : event.productIds()) {
+                Long popularity = remove(id);
+                if (popularity != null) {
+                    previous.put(id, popularity); // Yeniden adlandırmada satış adedi korunur
+                }
+            }
+            for (Product product : products) {
+                if (Boolean.TRUE.equals(product.getActive())) {
+                    insert(product, previous.getOrDefault(product.getId(), 0L));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Satış adetleri sipariş akışında değil, periyodik olarak tek bir GROUP BY sorgusuyla yenilenir
+    @Scheduled(fixedDelayString = "${catalog.suggest.popularity-refresh-interval:PT10M}",
+            initialDelayString = "${catalog.suggest.popularity-refresh-interval:PT10M}")
+    public void refreshPopularity() {
+        Map<Long, Long> popularity = loadPopularity();
+        lock.writeLock().lock();
+        try {
+            popularity.forEach((id, quantity) -> {
+                String key = keysById.get(id);
+                if (key != null) {
+                    List<Node> path = path(key);
+                    Node node = path.get(path.size() - 1);
+                    if (node.popularity != quantity) {
+                        node.popularity = quantity;
+                        updateMaxScores(path);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            // Best-first: kuyrukta hem düğümler (alt ağacın en iyi skoru ile) hem de kesinleşmiş sonuçlar bulunur.
+            // Kuyruğun başındaki sonuç, kalan hiçbir düğümün geçemeyeceği bir skora sahiptir.
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                    Comparator.comparingLong(Candidate::score).reversed().thenComparing(Candidate::isNode));
+            queue.add(new Candidate(node, node.maxScore, true));
+            List<ProductSuggestionDto> suggestions = new ArrayList<>(limit);
+            while (!queue.isEmpty() && suggestions.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node current = candidate.node();
+                if (!candidate.isNode()) {
+                    suggestions.add(ProductSuggestionDto.builder()
+                            .id(current.productId)
+                            .name(current.name)
+                            .popularity(current.popularity)
+                            .build());
+                    continue;
+                }
+                if (current.name != null) {
+                    queue.add(new Candidate(current, current.popularity, false));
+                }
+                for (Node child : current.children) {
+                    queue.add(new Candidate(child, child.maxScore, true));
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Düğümler, çocuk dizileri, ad metinleri ve id eşlemesi için yaklaşık bellek kullanımı
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return nodeCount * (NODE_BYTES + 2L * ARRAY_HEADER_BYTES)
+                    + childCount * CHILD_BYTES
+                    + keysById.size() * (2L * STRING_BYTES + MAP_ENTRY_BYTES)
+                    + nameChars * 2;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long bytesPerEntry() {
+        int size = size();
+        return size == 0 ? 0 : estimatedBytes() / size;
+    }
+
+    private record Candidate(Node node, long score, boolean isNode) {}
+
+    // Çocuklar sıralı bir char dizisinde tutulur (HashMap'e göre düğüm başına çok daha az bellek)
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        long maxScore = -1; // Alt ağaçtaki en yüksek popülerlik; ad yoksa -1
+        String name; // Bu düğümde biten ürün adı (yoksa null)
+        long productId;
+        long popularity;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    // Kurulum sayfasındaki ürünlerin eski girdilerini kaldırıp aktif olanları ekler; bütçe dolduğunda false döner
+    private boolean upsert(List<Product> products, Function<Long, Long> popularity) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                remove(product.getId());
+                if (Boolean.TRUE.equals(product.getActive()) && !insert(product, popularity.apply(product.getId()))) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Çağıran write lock'u tutmalıdır; bütçe doluysa ürün eklenmez ve false döner
+    private boolean insert(Product product, long popularity) {
+        if (keysById.size() >= maxEntries) {
+            log.warn("Suggest index is full ({} entries), product {} is not indexed", maxEntries, product.getId());
+            return false;
+        }
+        String key = normalize(product.getName());
+        if (key.isEmpty()) {
+            return true;
+        }
+
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            int index = Arrays.binarySearch(node.keys, c);
+            if (index < 0) {
+                int position = -index - 1;
+                Node child = new Node();
+                node.keys = insertAt(node.keys, position, c);
+                node.children = insertAt(node.children, position, child);
+                nodeCount++;
+                childCount++;
+                node = child;
+            } else {
+                node = node.children[index];
+            }
+            path.add(node);
+        }
+
+        if (node.name != null) {
+            // Normalleştirme sonrası aynı anahtara düşen iki addan daha popüler olanı tutulur
+            if (node.popularity >= popularity) {
+                updateMaxScores(path); // Yeni açılan boş düğümlerin skorları
+                return true;
+            }
+            keysById.remove(node.productId);
+            nameChars -= node.name.length() + key.length();
+        }
+        node.name = product.getName();
+        node.productId = product.getId();
+        node.popularity = popularity;
+        keysById.put(product.getId(), key);
+        nameChars += product.getName().length() + key.length();
+        updateMaxScores(path);
+        return true;
+    }
+
+    // Çağıran write lock'u tutmalıdır; boşalan düğümler budanır
+    private Long remove(Long productId) {
+        String key = keysById.remove(productId);
+        if (key == null) {
+            return null;
+        }
+        List<Node> path = path(key);
+        Node node = path.get(path.size() - 1);
+        nameChars -= node.name.length() + key.length();
+        long popularity = node.popularity;
+        node.name = null;
+
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            if (current.name != null || current.children.length > 0) {
+                break;
+            }
+            Node parent = path.get(depth - 1);
+            int index = Arrays.binarySearch(parent.keys, key.charAt(depth - 1));
+            parent.keys = removeAt(parent.keys, index);
+            parent.children = removeAt(parent.children, index);
+            nodeCount--;
+            childCount--;
+        }
+        updateMaxScores(path);
+        return popularity;
+    }
+
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Yaprağa doğru değişen yoldaki alt ağaç en iyi skorlarını aşağıdan yukarı yeniden hesaplar
+    private static void updateMaxScores(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            long max = node.name != null ? node.popularity : -1;
+            for (Node child : node.children) {
+                max = Math.max(max, child.maxScore);
+            }
+            node.maxScore = max;
+        }
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        Map<Long, Long> popularity = new HashMap<>();
+        orderItemRepository.sumQuantityByProduct()
+                .forEach(sales -> popularity.put(sales.getProductId(), sales.getQuantity()));
+        return popularity;
+    }
+
+    // Arama indeksiyle aynı normalleştirme (küçük harf, aksansız, tek boşluk)
+    private static String normalize(String text) {
+        return String.join(" ", ProductSearchIndex.tokenize(text));
+    }
+
+    private static char[] insertAt(char[] array, int position, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(array, position, result, position + 1, array.length - position);
+        return result;
+    }
+
+    private static Node[] insertAt(Node[] array, int position, Node value) {
+        Node[] result = new Node[array.length + 1];
+        System.arraycopy(array, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(array, position, result, position + 1, array.length - position);
+        return result;
+    }
+
+    private static char[] removeAt(char[] array, int position) {
+        char[] result = new char[array.length - 1];
+        System.arraycopy(array, 0, result, 0, position);
+        System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+        return result;
+    }
+
+    private static Node[] removeAt(Node[] array, int position) {
+        Node[] result = new Node[array.length - 1];
+        System.arraycopy(array, 0, result, 0, position);
+        System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.dto.OrderRequestStatusDto;
+import com.tkemre.ecommerce.dto.OrderRequestStatusDto.Status;
+import com.tkemre.ecommerce.exception.OrderPipelineShutdownException;
+import com.tkemre.ecommerce.exception.OrderQueueFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Asenkron sipariş kabulü (checkout.async.enabled=true ile açılır): doğrulanmış istek sınırlı bir halka kuyruğa
+// (ArrayBlockingQueue) eklenir ve HTTP isteği hemen 202 + takip anahtarı ile döner. Siparişleri tek bir yazıcı
+// thread sırayla OrderCheckout üzerinden oluşturur. Kuyruk doluysa istek 429 ile reddedilir (backpressure).
+// Kabul kalıcı değildir: kuyruk yalnızca bellekte tutulur. Kapanışta yeni istekler 503 ile reddedilir ve kuyruktaki
+// siparişler shutdown-timeout boyunca işlenir; süre dolarsa ya da süreç çökerse kabul edilmiş (202) siparişler kaybolur.
+@Component
+@ConditionalOnProperty(name = "checkout.async.enabled", havingValue = "true")
+public class AsyncOrderPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderPipeline.class);
+
+    private final OrderCheckout orderCheckout;
+    private final int capacity;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<AcceptedOrder> queue;
+    private final Cache<String, TrackedRequest> requests; // Durumlar result-ttl boyunca sorgulanabilir
+    private final Thread writer;
+    private volatile boolean accepting = true;
+
+    public AsyncOrderPipeline(OrderCheckout orderCheckout,
+                              @Value("${checkout.async.queue-capacity:1024}") int capacity,
+                              @Value("${checkout.async.result-ttl:PT10M}") Duration resultTtl,
+                              @Value("${checkout.async.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+                              MeterRegistry meterRegistry) {
+        this.orderCheckout = orderCheckout;
+        this.capacity = capacity;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.requests = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .build();
+        Gauge.builder("checkout.async.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.writer = new Thread(this::run, "order-pipeline");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Aynı Idempotency-Key ile tekrar gönderilen istek yeni bir takip anahtarı alır ama aynı siparişe çözülür
+    public OrderRequestStatusDto submit(String username, CreateOrderRequest request, String idempotencyKey) {
+        String token = UUID.randomUUID().toString();
+        OrderRequestStatusDto status = OrderRequestStatusDto.builder().token(token).status(Status.QUEUED).build();
+        requests.put(token, new TrackedRequest(username, status));
+        // Kapanış kontrolü ile kuyruğa ekleme atomik: shutdown() bayrağı indirdikten sonra kuyruğa yeni sipariş giremez
+        synchronized (this) {
+            if (!accepting) {
+                requests.invalidate(token);
+                throw new OrderPipelineShutdownException();
+            }
+            if (!queue.offer(new AcceptedOrder(token, username, request, idempotencyKey))) {
+                requests.invalidate(token);
+                throw new OrderQueueFullException(capacity);
+            }
+        }
+        return status;
+    }
+
+    // Başka kullanıcının isteği de "bulunamadı" olarak döner
+    public Optional<OrderRequestStatusDto> status(String token, String username) {
+        TrackedRequest tracked = requests.getIfPresent(token);
+        if (tracked == null || !tracked.username().equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.of(tracked.status());
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    // Yeni istekleri reddeder, kuyruktakileri shutdown-timeout boyunca işler; kalanlar kaybolur ve loglanır
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            accepting = false;
+        }
+        if (!queue.isEmpty()) {
+            log.info("Draining {} accepted orders before shutdown", queue.size());
+        }
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} accepted orders were not processed before shutdown", queue.size());
+        }
+    }
+
+    // Kapanışta kuyruk boşalana kadar çalışır; kesilirse (shutdown-timeout doldu) hemen durur
+    private void run() {
+        while (true) {
+            AcceptedOrder accepted;
+            try {
+                accepted = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (accepted == null) {
+                if (!accepting) {
+                    return;
+                }
+                continue;
+            }
+            OrderRequestStatusDto.OrderRequestStatusDtoBuilder result = OrderRequestStatusDto.builder().token(accepted.token());
+            try {
+                OrderDto order = orderCheckout.placeOrder(accepted.username(), accepted.request(), accepted.idempotencyKey());
+                result.status(Status.COMPLETED).orderId(order.id());
+            } catch (RuntimeException e) {
+                result.status(Status.FAILED).error(e.getMessage());
+            }
+            requests.put(accepted.token(), new TrackedRequest(accepted.username(), result.build()));
+        }
+    }
+
+    private record AcceptedOrder(String token, String username, CreateOrderRequest request, String idempotencyKey) {}
+
+    private record TrackedRequest(String username, OrderRequestStatusDto status) {}
+}
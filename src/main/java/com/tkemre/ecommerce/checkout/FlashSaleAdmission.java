@@ -0,0 +1,236 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flash satışlarda yoğun talep gören (sıcak) ürünler için bellek içi kabul katmanı (checkout.admission.enabled=true ile açılır).
+// Sıcak ürünün stoğu kadar token tutulur; sipariş işlem yoluna girmeden önce token alır, token yoksa kısa bir süre
+// bekler veya hemen reddedilir. Böylece stoğu kalmamış binlerce istek aynı satır için kilit beklemez.
+// Token'lar yalnızca bir ön filtredir: stoğun asıl garantisi veritabanındaki koşullu UPDATE'tir.
+@Component
+@ConditionalOnProperty(name = "checkout.admission.enabled", havingValue = "true")
+public class FlashSaleAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleAdmission.class);
+
+    private final ProductRepository productRepository;
+    private final Set<Long> configuredHotProducts;
+    private final long autoDetectThreshold; // Bir pencerede bu kadar sipariş denemesi alan ürün sıcak sayılır (0: kapalı)
+    private final long maxWaitNanos;
+
+    private final Map<Long, Gate> gates = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> demand = new ConcurrentHashMap<>();
+    private final Counter admitted;
+    private final Counter rejected;
+
+    public FlashSaleAdmission(ProductRepository productRepository,
+                              @Value("${checkout.admission.hot-products:}") Set<Long> hotProducts,
+                              @Value("${checkout.admission.auto-detect-threshold:0}") long autoDetectThreshold,
+                              @Value("${checkout.admission.max-wait:PT0S}") Duration maxWait,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.configuredHotProducts = hotProducts;
+        this.autoDetectThreshold = autoDetectThreshold;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.admitted = meterRegistry.counter("checkout.admission.admitted");
+        this.rejected = meterRegistry.counter("checkout.admission.rejected");
+        Gauge.builder("checkout.admission.hot.products", gates, Map::size).register(meterRegistry);
+    }
+
+    // Sipariş için alınan token'lar; işlem bittiğinde complete(...) ile kapatılır
+    public record Ticket(List<Reservation> reservations) {
+        static final Ticket EMPTY = new Ticket(List.of());
+    }
+
+    record Reservation(Gate gate, int quantity) {}
+
+    // Ürünler artan id sırasıyla alınır; biri alınamazsa öncekiler iade edilip OutOfStockException fırlatılır
+    public Ticket admit(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Reservation> reservations = null;
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            if (autoDetectThreshold > 0) {
+                demand.computeIfAbsent(entry.getKey(), id -> new LongAdder()).increment();
+            }
+            Gate gate = gates.get(entry.getKey());
+            if (gate == null) {
+                continue;
+            }
+            int quantity = entry.getValue();
+            gate.inFlight.addAndGet(quantity);
+            if (!gate.tryAcquire(quantity, maxWaitNanos)) {
+                gate.inFlight.addAndGet(-quantity);
+                if (reservations != null) {
+                    complete(new Ticket(reservations), false);
+                }
+                rejected.increment();
+                throw new OutOfStockException("with id " + entry.getKey());
+            }
+            if (reservations == null) {
+                reservations = new ArrayList<>(quantitiesByProductId.size());
+            }
+            reservations.add(new Reservation(gate, quantity));
+        }
+        if (reservations == null) {
+            return Ticket.EMPTY;
+        }
+        admitted.increment();
+        return new Ticket(reservations);
+    }
+
+    // Başarılı siparişte token'lar tüketilmiş olur; başarısızsa stok düşmediği için geri verilir
+    public void complete(Ticket ticket, boolean success) {
+        for (Reservation reservation : ticket.reservations()) {
+            Gate gate = reservation.gate();
+            if (!success) {
+                gate.tokens.release(reservation.quantity());
+            }
+            if (gate.inFlight.addAndGet(-reservation.quantity()) == 0 && gate.stale) {
+                resync(gate);
+            }
+        }
+    }
+
+    public void promote(Long productId, boolean autoDetected) {
+        productRepository.findById(productId).map(Product::getStock).ifPresent(stock -> {
+            if (gates.putIfAbsent(productId, new Gate(productId, stock, autoDetected)) == null) {
+                log.info("Flash-sale admission enabled for product {} with {} tokens", productId, stock);
+            }
+        });
+    }
+
+    public boolean isHot(Long productId) {
+        return gates.containsKey(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void promoteConfiguredProducts() {
+        configuredHotProducts.forEach(productId -> promote(productId, false));
+    }
+
+    // Stok işlem dışından (admin, iptal, toplu güncelleme) değişmiş olabilir; ürün boştayken veritabanından yeniden okunur
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (Long productId : event.productIds()) {
+            Gate gate = gates.get(productId);
+            if (gate == null) {
+                continue;
+            }
+            if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+                gates.remove(productId);
+                continue;
+            }
+            gate.stale = true;
+            if (gate.inFlight.get() == 0) {
+                resync(gate);
+            }
+        }
+    }
+
+    // Talep sayaçlarını pencere sonunda değerlendirir: eşiği aşan ürünler sıcak olur,
+    // talebi düşen otomatik sıcak ürünler normal yola döner
+    @Scheduled(fixedRateString = "${checkout.admission.detect-window:PT1S}")
+    public void detectHotProducts() {
+        if (autoDetectThreshold <= 0) {
+            return;
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        demand.entrySet().removeIf(entry -> {
+            long count = entry.getValue().sumThenReset();
+            counts.put(entry.getKey(), count);
+            return count == 0; // Talep görmeyen ürünlerin sayaçları bırakılır
+        });
+
+        counts.forEach((productId, count) -> {
+            if (count >= autoDetectThreshold && !gates.containsKey(productId)) {
+                promote(productId, true);
+            }
+        });
+        gates.values().removeIf(gate -> gate.autoDetected
+                && counts.getOrDefault(gate.productId, 0L) < autoDetectThreshold
+                && gate.inFlight.get() == 0);
+    }
+
+    private void resync(Gate gate) {
+        synchronized (gate) {
+            if (!gate.stale) {
+                return;
+            }
+            gate.stale = false;
+            productRepository.findById(gate.productId).map(Product::getStock).ifPresent(stock -> {
+                // Yarışta kalan bir istek token almış olabilir; fazla token en kötü ihtimalle veritabanında reddedilir
+                int target = Math.max(0, stock - gate.inFlight.get());
+                int difference = target - gate.tokens.availablePermits();
+                if (difference > 0) {
+                    gate.tokens.release(difference);
+                } else if (difference < 0) {
+                    gate.tokens.reduce(-difference);
+                }
+            });
+        }
+    }
+
+    static final class Gate {
+        final Long productId;
+        final TokenPool tokens;
+        final AtomicInteger inFlight = new AtomicInteger(); // Token almış, işlemi henüz bitmemiş miktar
+        final boolean autoDetected;
+        volatile boolean stale;
+
+        Gate(Long productId, int stock, boolean autoDetected) {
+            this.productId = productId;
+            this.tokens = new TokenPool(stock);
+            this.autoDetected = autoDetected;
+        }
+
+        // Bekleme süresi yoksa kilitsiz (CAS) deneme; varsa sıraya girip en fazla maxWait kadar bekler
+        boolean tryAcquire(int quantity, long maxWaitNanos) {
+            if (maxWaitNanos <= 0) {
+                return tokens.tryAcquire(quantity);
+            }
+            try {
+                return tokens.tryAcquire(quantity, maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    // Yeniden senkronizasyonda token sayısını düşürebilmek için
+    static final class TokenPool extends Semaphore {
+        TokenPool(int permits) {
+            super(permits);
+        }
+
+        void reduce(int permits) {
+            reducePermits(permits);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.exception.OrderPipelineShutdownException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
+import com.tkemre.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Grup commit: eşzamanlı sipariş istekleri linger süresi kadar (veya max-batch-size dolana kadar) biriktirilip
+// tek bir işlemde commit edilir (checkout.group-commit.enabled=true ile açılır). Commit maliyeti batch'e bölünür.
+// Her sipariş kendi JDBC savepoint'inde çalışır (OrderService.createOrderInBatch); başarısız olan yalnızca kendisi reddedilir:
+// SQL'i savepoint'e geri alınır, varlıkları oturumdan atılır ve stok defteri açıksa ayırmaları stoğa geri verilir.
+@Component
+@ConditionalOnProperty(name = "checkout.group-commit.enabled", havingValue = "true")
+public class GroupCommitCheckout {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitCheckout.class);
+
+    // Repository proxy'sini atlayan flush hatalarını Spring'in DataAccessException hiyerarşisine çevirir
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    private final OrderService orderService;
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+    private final ObjectProvider<InventoryLedger> inventoryLedger; // Opsiyonel (inventory.ledger.enabled)
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Counter fallbacks; // Ortak commit'i başarısız olup siparişleri tek tek yeniden denenen batch'ler
+    private final Thread committer;
+    private volatile boolean running = true; // Yalnızca this kilidi altında false yapılır (bkz. submit)
+
+    public GroupCommitCheckout(OrderService orderService,
+                               DataSource dataSource,
+                               EntityManager entityManager,
+                               ObjectProvider<InventoryLedger> inventoryLedger,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${checkout.group-commit.max-batch-size:32}") int maxBatchSize,
+                               @Value("${checkout.group-commit.linger:PT0.002S}") Duration linger,
+                               MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.dataSource = dataSource;
+        this.entityManager = entityManager;
+        this.inventoryLedger = inventoryLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.batchSizes = DistributionSummary.builder("checkout.group-commit.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.fallbacks = meterRegistry.counter("checkout.group-commit.fallbacks");
+        this.committer = new Thread(this::run, "order-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    // Sipariş batch'iyle birlikte commit edilene kadar bekler; sipariş reddedildiyse kendi hatası fırlatılır.
+    // Kuyruğa giren her sipariş ya commit edilir ya da reddedilir (committer durursa kalanlar 503 ile reddedilir),
+    // bu yüzden bekleme sonsuza kadar sürmez.
+    public OrderDto submit(String username, CreateOrderRequest request, String idempotencyKey) {
+        PendingOrder pending = new PendingOrder(username, request, idempotencyKey);
+        // Durum kontrolü ile kuyruğa ekleme atomik: committer durduktan sonra kuyruğa yeni sipariş giremez
+        synchronized (this) {
+            if (!running) {
+                throw new OrderPipelineShutdownException();
+            }
+            queue.add(pending);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopAccepting();
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+        rejectQueued();
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        try {
+            commitBatches(batch);
+        } finally {
+            // Committer hangi yoldan biterse bitsin (kapanış ya da beklenmeyen bir Error), bekleyen kimse askıda kalmaz
+            stopAccepting();
+            batch.forEach(pending -> pending.result.completeExceptionally(new OrderPipelineShutdownException()));
+            rejectQueued();
+        }
+    }
+
+    private synchronized void stopAccepting() {
+        running = false;
+    }
+
+    private void rejectQueued() {
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new OrderPipelineShutdownException());
+        }
+    }
+
+    private void commitBatches(List<PendingOrder> batch) {
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // İlk istekten itibaren linger süresi kadar yeni istek beklenir
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingOrder next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopAccepting();
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Connection connection = DataSourceUtils.getConnection(dataSource); // İşleme bağlı bağlantı
+                batch.forEach(pending -> createInSavepoint(connection, status, pending));
+            });
+        } catch (RuntimeException e) {
+            // Ortak commit başarısız oldu (ör. bağlantı hatası): batch'teki kararlar geçersiz, her sipariş kendi işleminde yeniden denenir
+            log.warn("Group commit of {} orders failed; retrying them one by one", batch.size(), e);
+            fallbacks.increment();
+            batch.forEach(this::commitAlone);
+        }
+        // Yanıtlar yalnızca commit'ten sonra döner
+        for (PendingOrder pending : batch) {
+            if (pending.failure != null) {
+                pending.result.completeExceptionally(pending.failure);
+            } else {
+                pending.result.complete(pending.order);
+            }
+        }
+    }
+
+    // JPA diyalekti savepoint desteklemediği için savepoint doğrudan işlemin JDBC bağlantısında açılır
+    private void createInSavepoint(Connection connection, TransactionStatus status, PendingOrder pending) {
+        Savepoint savepoint;
+        try {
+            savepoint = connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Savepoint could not be created", e);
+        }
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        int reservations = ledger != null ? ledger.savepoint() : 0;
+        try {
+            pending.order = orderService.createOrderInBatch(pending.username, pending.request, pending.idempotencyKey);
+            // orderRepository.flush() değil: işleme katılan @Transactional bir metodun hatası tüm batch'i rollback-only yapardı
+            // (flush'ın kendi hatalarında JPA işlemi yine de rollback-only işaretler; bkz. aşağıdaki kontrol)
+            entityManager.flush();
+            connection.releaseSavepoint(savepoint);
+        } catch (RuntimeException e) {
+            pending.order = null;
+            pending.failure = e instanceof PersistenceException ? DataAccessUtils.translateIfNecessary(e, JPA_DIALECT) : e;
+            rollbackTo(connection, savepoint);
+            if (ledger != null) {
+                ledger.rollbackToSavepoint(reservations);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Savepoint could not be released", e);
+        } finally {
+            // Siparişin SQL'i ya savepoint'e geri alındı ya da çalıştırıldı; varlıkları oturumda kalırsa sonraki flush
+            // geri alınmış satırları güncellemeye çalışırdı. Başarılı siparişler zaten DTO olarak tutulur.
+            entityManager.clear();
+        }
+        if (status.isRollbackOnly()) {
+            // Savepoint yeterli değil (ör. kısıt ihlaliyle biten flush ya da hata fırlatan bir repository metodu);
+            // batch geri alınır ve siparişler tek tek yeniden denenir
+            throw new IllegalStateException("Group commit transaction was marked rollback-only");
+        }
+    }
+
+    private static void rollbackTo(Connection connection, Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Rollback to savepoint failed", e);
+        }
+    }
+
+    private void commitAlone(PendingOrder pending) {
+        pending.order = null;
+        pending.failure = null;
+        try {
+            pending.order = orderService.createOrder(pending.username, pending.request, pending.idempotencyKey);
+        } catch (RuntimeException e) {
+            pending.failure = e;
+        }
+    }
+
+    private static final class PendingOrder {
+        final String username;
+        final CreateOrderRequest request;
+        final String idempotencyKey;
+        final CompletableFuture<OrderDto> result = new CompletableFuture<>();
+        OrderDto order;
+        RuntimeException failure;
+
+        PendingOrder(String username, CreateOrderRequest request, String idempotencyKey) {
+            this.username = username;
+            this.request = request;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+}
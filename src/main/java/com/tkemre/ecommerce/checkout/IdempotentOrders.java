@@ -0,0 +1,121 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.exception.IdempotencyKeyReuseException;
+import com.tkemre.ecommerce.model.IdempotencyRecord;
+import com.tkemre.ecommerce.repository.IdempotencyRecordRepository;
+import com.tkemre.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Idempotency-Key başlığıyla gelen siparişlerin tekrarlarını ilk isteğin sonucuyla yanıtlar.
+// Sonuçlar boyut ve TTL ile sınırlı bir cache'te tutulur; aynı anahtarla eşzamanlı gelen kopyalar ilk isteğin
+// future'ını bekler. Cache'te olmayan anahtarlar (ör. yeniden başlatma sonrası) kalıcı kayıttan bulunur.
+@Component
+public class IdempotentOrders {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentOrders.class);
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration retention;
+    private final Cache<RequestKey, InFlight> results;
+    private final Counter replays;
+
+    public IdempotentOrders(OrderService orderService,
+                            IdempotencyRecordRepository idempotencyRecordRepository,
+                            @Value("${checkout.idempotency.cache-size:100000}") long cacheSize,
+                            @Value("${checkout.idempotency.cache-ttl:PT1H}") Duration cacheTtl,
+                            @Value("${checkout.idempotency.retention:P1D}") Duration retention,
+                            MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.retention = retention;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "idempotency");
+        this.replays = meterRegistry.counter("checkout.idempotency.replays");
+    }
+
+    // creator siparişi anahtarla birlikte (aynı işlemde) oluşturmalıdır
+    public OrderDto execute(String username, String idempotencyKey, CreateOrderRequest request, Supplier<OrderDto> creator) {
+        RequestKey key = new RequestKey(username, idempotencyKey);
+        InFlight mine = new InFlight(IdempotencyRecord.fingerprint(request), new CompletableFuture<>());
+        InFlight existing = results.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!existing.requestHash().equals(mine.requestHash())) {
+                throw new IdempotencyKeyReuseException(idempotencyKey);
+            }
+            replays.increment();
+            return await(existing.result());
+        }
+
+        try {
+            OrderDto order = orderService.findOrderByIdempotencyKey(username, idempotencyKey, request)
+                    .map(replayed -> {
+                        replays.increment();
+                        return replayed;
+                    })
+                    .orElseGet(() -> create(username, idempotencyKey, request, creator));
+            mine.result().complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            // Başarısız istekler cache'lenmez; istemci aynı anahtarla yeniden deneyebilir
+            results.asMap().remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Saklama süresi dolan kalıcı kayıtları siler
+    @Scheduled(fixedDelayString = "${checkout.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredRecords() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    private OrderDto create(String username, String idempotencyKey, CreateOrderRequest request, Supplier<OrderDto> creator) {
+        try {
+            return creator.get();
+        } catch (DataIntegrityViolationException e) {
+            // Aynı anahtar başka bir sunucuda/cache dışında eşzamanlı işlendi; onun siparişi döner
+            return orderService.findOrderByIdempotencyKey(username, idempotencyKey, request).orElseThrow(() -> e);
+        }
+    }
+
+    private static OrderDto await(CompletableFuture<OrderDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record RequestKey(String username, String idempotencyKey) {}
+
+    private record InFlight(String requestHash, CompletableFuture<OrderDto> result) {}
+}
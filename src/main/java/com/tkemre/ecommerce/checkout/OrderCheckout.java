@@ -0,0 +1,79 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.service.OrderService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Sipariş oluşturmanın HTTP katmanından gelen giriş noktası. İşlem (transaction) dışında çalışır:
+// kabul kontrolleri veritabanı bağlantısı ve satır kilidi alınmadan önce yapılır.
+@Service
+public class OrderCheckout {
+
+    private final OrderService orderService;
+    private final ObjectProvider<FlashSaleAdmission> flashSaleAdmission;
+    private final ObjectProvider<GroupCommitCheckout> groupCommitCheckout;
+    private final IdempotentOrders idempotentOrders;
+
+    public OrderCheckout(OrderService orderService,
+                         ObjectProvider<FlashSaleAdmission> flashSaleAdmission,
+                         ObjectProvider<GroupCommitCheckout> groupCommitCheckout,
+                         IdempotentOrders idempotentOrders) {
+        this.orderService = orderService;
+        this.flashSaleAdmission = flashSaleAdmission;
+        this.groupCommitCheckout = groupCommitCheckout;
+        this.idempotentOrders = idempotentOrders;
+    }
+
+    public OrderDto placeOrder(String username, CreateOrderRequest request) {
+        return placeOrder(username, request, null);
+    }
+
+    // Idempotency-Key verildiyse tekrarlar ilk isteğin siparişiyle yanıtlanır (kabul kontrollerine de girmez)
+    public OrderDto placeOrder(String username, CreateOrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return admitAndCreate(username, request, null);
+        }
+        return idempotentOrders.execute(username, idempotencyKey, request,
+                () -> admitAndCreate(username, request, idempotencyKey));
+    }
+
+    private OrderDto admitAndCreate(String username, CreateOrderRequest request, String idempotencyKey) {
+        FlashSaleAdmission admission = flashSaleAdmission.getIfAvailable();
+        if (admission == null) {
+            return createOrder(username, request, idempotencyKey);
+        }
+
+        FlashSaleAdmission.Ticket ticket = admission.admit(requestedQuantities(request));
+        boolean success = false;
+        try {
+            OrderDto order = createOrder(username, request, idempotencyKey);
+            success = true;
+            return order;
+        } finally {
+            admission.complete(ticket, success);
+        }
+    }
+
+    // Grup commit açıksa sipariş ortak batch işlemine katılır, değilse kendi işleminde oluşturulur
+    private OrderDto createOrder(String username, CreateOrderRequest request, String idempotencyKey) {
+        GroupCommitCheckout groupCommit = groupCommitCheckout.getIfAvailable();
+        return groupCommit != null
+                ? groupCommit.submit(username, request, idempotencyKey)
+                : orderService.createOrder(username, request, idempotencyKey);
+    }
+
+    // Aynı ürün birden çok satırda gelebilir; ürün id sırasıyla toplanır
+    private static SortedMap<Long, Integer> requestedQuantities(CreateOrderRequest request) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CreateOrderItemRequest item : request.items()) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
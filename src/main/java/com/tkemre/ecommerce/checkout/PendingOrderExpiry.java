@@ -0,0 +1,67 @@
+package com.tkemre.ecommerce.checkout;
+
+import com.tkemre.ecommerce.service.OrderService;
+import com.tkemre.ecommerce.service.OrderService.ExpiredOrders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Ödemesi tamamlanmayan (PENDING) siparişleri TTL dolunca iptal eder ve ayrılan stoğu geri bırakır
+// (order.pending-expiry.enabled=true ile açılır). Sipariş başına zamanlayıcı tutulmaz; süresi dolanlar
+// (status, order_date) indeksinden en eskiden başlayarak batch'ler halinde okunur. Her batch kendi işleminde çalışır,
+// böylece satır kilitleri kısa sürer ve yeniden başlatma sonrası kaçırılan süre aşımları da ilk turda yakalanır.
+@Component
+@ConditionalOnProperty(name = "order.pending-expiry.enabled", havingValue = "true")
+public class PendingOrderExpiry {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingOrderExpiry.class);
+
+    private final OrderService orderService;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Counter expiredOrders;
+    private final Counter releasedUnits;
+    private final Timer expiryLag;
+
+    public PendingOrderExpiry(OrderService orderService,
+                              @Value("${order.pending-expiry.ttl:PT30M}") Duration ttl,
+                              @Value("${order.pending-expiry.batch-size:500}") int batchSize,
+                              MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.expiredOrders = meterRegistry.counter("orders.pending.expired");
+        this.releasedUnits = meterRegistry.counter("orders.pending.released.units");
+        // Süresi dolma anı ile gerçek iptal arasındaki gecikme (her batch'in en eski siparişi için)
+        this.expiryLag = meterRegistry.timer("orders.pending.expiry.lag");
+    }
+
+    @Scheduled(fixedDelayString = "${order.pending-expiry.check-interval:PT30S}")
+    public void expireStaleOrders() {
+        int total = 0;
+        ExpiredOrders batch;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            batch = orderService.expirePendingOrders(now.minus(ttl), batchSize);
+            if (batch.orders() == 0) {
+                break;
+            }
+            total += batch.orders();
+            expiredOrders.increment(batch.orders());
+            releasedUnits.increment(batch.releasedUnits());
+            expiryLag.record(Duration.between(batch.oldestOrderDate().plus(ttl), now));
+        } while (batch.orders() == batchSize); // Dolu batch: geride bekleyen süresi dolmuş sipariş olabilir
+        if (total > 0) {
+            log.info("Expired {} pending orders older than {}", total, ttl);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tkemre.ecommerce.config;
+
+import com.tkemre.ecommerce.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// ddl-auto=update dolu bir products tablosuna NOT NULL sütun ekleyemez (ALTER başarısız olur, sütun hiç oluşmaz);
+// bu yüzden normalized_name entity'de nullable tanımlıdır. Açılışta boş kalan satırlar Product.normalizeName ile
+// doldurulur, ardından sütun NOT NULL yapılır. Büyük/küçük harf farkıyla çakışan eski adlar doldurulamaz: bu satırlar
+// loglanır ve yeniden adlandırılana kadar sütun nullable kalır.
+@Component
+@DependsOn("entityManagerFactory") // Şema güncellemesinden (sütunun eklenmesinden) sonra çalışır
+public class ProductNameBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNameBackfill.class);
+
+    private static final String NULLABLE_SQL = "SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+            + "WHERE UPPER(TABLE_NAME) = 'PRODUCTS' AND UPPER(COLUMN_NAME) = 'NORMALIZED_NAME'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductNameBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, name FROM products WHERE normalized_name IS NULL ORDER BY id");
+        int conflicts = 0;
+        for (Map<String, Object> row : rows) {
+            try {
+                jdbcTemplate.update("UPDATE products SET normalized_name = ? WHERE id = ?",
+                        Product.normalizeName((String) row.get("NAME")), row.get("ID"));
+            } catch (DuplicateKeyException e) {
+                conflicts++;
+                log.warn("Product {} ('{}') differs from another product name only by case; rename it", row.get("ID"), row.get("NAME"));
+            }
+        }
+        if (!rows.isEmpty()) {
+            log.info("Backfilled normalized_name for {} products ({} conflicts)", rows.size() - conflicts, conflicts);
+        }
+        if (conflicts == 0 && "YES".equals(jdbcTemplate.queryForObject(NULLABLE_SQL, String.class))) {
+            jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN normalized_name SET NOT NULL");
+        }
+    }
+}
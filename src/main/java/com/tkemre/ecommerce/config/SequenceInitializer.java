@@ -0,0 +1,61 @@
+package com.tkemre.ecommerce.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// ddl-auto=update, IDENTITY döneminden kalan dolu tablolar için sequence'ları 1'den başlatır; ilk insert'ler mevcut
+// id'lerle çakışırdı. Açılışta her sequence, tablodaki en büyük id'nin üstünde bir blok ayıracak şekilde ileri alınır.
+@Component
+public class SequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    private static final String NEXT_VALUE_SQL =
+            "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void synchronizeSequences() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                synchronize(generator.getDatabaseStructure().getPhysicalName().getObjectName().getText(),
+                        generator.getDatabaseStructure().getIncrementSize(),
+                        entityPersister.getTableName(),
+                        entityPersister.getIdentifierColumnNames()[0]);
+            }
+        });
+    }
+
+    private void synchronize(String sequenceName, int incrementSize, String tableName, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + tableName, Long.class);
+        List<Long> nextValue = jdbcTemplate.queryForList(NEXT_VALUE_SQL, Long.class, sequenceName);
+        if (maxId == null || nextValue.isEmpty()) {
+            return;
+        }
+        // Pooled optimizer sequence'tan dönen v değeri için [v - incrementSize + 1, v] bloğunu kullanır;
+        // bloğun alt sınırı maxId'nin üstünde kalmalı
+        long required = maxId + incrementSize;
+        if (nextValue.get(0) < required) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequenceName + " RESTART WITH " + required);
+            log.info("Sequence {} restarted at {} (max {}.{} = {})", sequenceName, required, tableName, idColumn, maxId);
+        }
+    }
+}
@@ -1,51 +1,135 @@
 package com.tkemre.ecommerce.controller;
 
+import com.tkemre.ecommerce.cache.ResourceVersionCache;
+import com.tkemre.ecommerce.checkout.AsyncOrderPipeline;
+import com.tkemre.ecommerce.checkout.OrderCheckout;
+import com.tkemre.ecommerce.dto.BulkCancelOrdersRequest;
+import com.tkemre.ecommerce.dto.BulkCancelOrdersResult;
 import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.dto.OrderRequestStatusDto;
 import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
+import com.tkemre.ecommerce.exception.OrderNotFoundException;
+import com.tkemre.ecommerce.notification.OrderStatusHub;
+import com.tkemre.ecommerce.service.KeysetCursor;
+import com.tkemre.ecommerce.service.OrderExportService;
 import com.tkemre.ecommerce.service.OrderService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // Yetkilendirme için
 import org.springframework.security.core.annotation.AuthenticationPrincipal; // Mevcut kullanıcıyı almak için
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderCheckout orderCheckout;
+    private final ObjectProvider<AsyncOrderPipeline> asyncOrderPipeline; // Opsiyonel (checkout.async.enabled)
+    private final OrderExportService orderExportService;
+    private final OrderStatusHub orderStatusHub;
+    private final ResourceVersionCache resourceVersions;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderCheckout orderCheckout,
+                           ObjectProvider<AsyncOrderPipeline> asyncOrderPipeline,
+                           OrderExportService orderExportService,
+                           OrderStatusHub orderStatusHub,
+                           ResourceVersionCache resourceVersions) {
         this.orderService = orderService;
+        this.orderCheckout = orderCheckout;
+        this.asyncOrderPipeline = asyncOrderPipeline;
+        this.orderExportService = orderExportService;
+        this.orderStatusHub = orderStatusHub;
+        this.resourceVersions = resourceVersions;
     }
 
     // Yeni sipariş oluştur (Sadece USER veya ADMIN rolüne sahip kullanıcılar için)
     // POST /api/v1/orders
+    // Asenkron mod açıksa istek kuyruğa alınır: 202 Accepted + takip anahtarı (kuyruk doluysa 429)
+    // Idempotency-Key başlığıyla yapılan tekrarlar yeni sipariş oluşturmaz, ilk siparişi döner
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<OrderDto> createOrder(
+    public ResponseEntity<?> createOrder(
             @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request) {
-        OrderDto createdOrder = orderService.createOrder(userDetails.getUsername(), request);
+        AsyncOrderPipeline pipeline = asyncOrderPipeline.getIfAvailable();
+        if (pipeline != null) {
+            OrderRequestStatusDto accepted = pipeline.submit(userDetails.getUsername(), request, idempotencyKey);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/orders/requests/" + accepted.token()))
+                    .body(accepted);
+        }
+        OrderDto createdOrder = orderCheckout.placeOrder(userDetails.getUsername(), request, idempotencyKey);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED); // 201 Created döndür
     }
 
+    // Asenkron kabul edilen sipariş isteğinin durumu; COMPLETED olduğunda orderId ile sipariş okunabilir
+    // GET /api/v1/orders/requests/{token}
+    @GetMapping("/requests/{token}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<OrderRequestStatusDto> getOrderRequestStatus(
+            @PathVariable String token,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        AsyncOrderPipeline pipeline = asyncOrderPipeline.getIfAvailable();
+        Optional<OrderRequestStatusDto> status = pipeline == null
+                ? Optional.empty()
+                : pipeline.status(token, userDetails.getUsername());
+        return status.map(ResponseEntity::ok)
+                .orElseThrow(() -> new OrderNotFoundException("No order request with token " + token));
+    }
+
+    // Oturum açmış kullanıcının sipariş durum değişikliklerini Server-Sent Events ile akıtır (yoklama yerine)
+    // GET /api/v1/orders/stream  (Accept: text/event-stream). Yeniden bağlanırken Last-Event-ID başlığı gönderilirse
+    // kaçırılan olaylar tekrar gönderilir; "resync" olayı gelirse siparişler yeniden okunmalıdır.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public SseEmitter streamOrderStatus(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderStatusHub.subscribe(userDetails.getUsername(), lastEventId);
+    }
+
     // ID'ye göre sipariş detayını getir (Sadece sipariş sahibi kullanıcı veya ADMIN için)
     // GET /api/v1/orders/{id}
+    // ETag satır sürümünden ve gömülü ürün/adres alanlarından üretilir; sürüm cache'i sıcakken If-None-Match
+    // eşleşmesi sipariş okunmadan 304 ile yanıtlanır
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<OrderDto> getOrderById(
             @AuthenticationPrincipal UserDetails userDetails,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = resourceVersions.cachedOrderETag(id, userDetails.getUsername());
+        if (cachedETag != null && ResourceVersionCache.matches(ifNoneMatch, cachedETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedETag).build();
+        }
+
+        long stamp = resourceVersions.orderStamp(id);
         OrderDto order = orderService.getOrderById(id, userDetails.getUsername());
-        return ResponseEntity.ok(order); // 200 OK döndür
+        resourceVersions.putOrder(order, stamp);
+        // Yüklenen sürüm If-None-Match ile eşleşirse Spring gövdesiz 304 döner
+        return ResponseEntity.ok().eTag(ResourceVersionCache.orderETag(order)).body(order); // 200 OK döndür
     }
 
     // Oturum açmış kullanıcının siparişlerini listele (Sayfalama ile)
@@ -58,19 +142,47 @@ public class OrderController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "orderDate,desc") String[] sort) {
 
-        // Sıralama parametrelerini işle
-        Sort sorting = Sort.by(sort[0]);
-        if (sort.length > 1 && sort[1].equalsIgnoreCase("desc")) {
-            sorting = sorting.descending();
-        } else {
-            sorting = sorting.ascending();
-        }
+        // Sıralama parametrelerini işle; yalnızca indeksli alanlara izin verilir
+        Sort sorting = KeysetCursor.parseSort(sort, KeysetCursor.ORDER_SORT_FIELDS);
         Pageable pageable = PageRequest.of(page, size, sorting);
 
         Page<OrderDto> orders = orderService.getUserOrders(userDetails.getUsername(), pageable);
         return ResponseEntity.ok(orders); // 200 OK döndür
     }
 
+    // Oturum açmış kullanıcının siparişlerini keyset (cursor) sayfalama ile listele
+    // GET /api/v1/orders/scroll?size=10&sort=orderDate,desc  -> sonraki sayfa: &cursor=<nextCursor>
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<OrderDto>> scrollUserOrders(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "orderDate,desc") String[] sort) {
+        KeysetCursor keysetCursor = KeysetCursor.of(cursor, sort, KeysetCursor.ORDER_SORT_FIELDS);
+        return ResponseEntity.ok(orderService.scrollUserOrders(userDetails.getUsername(), keysetCursor, KeysetCursor.clampSize(size)));
+    }
+
+    // Bir dönemin tüm siparişlerini kalemleriyle birlikte akış halinde dışa aktar (Sadece ADMIN)
+    // GET /api/v1/orders/export?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&format=CSV|NDJSON
+    // Satırlar veritabanından okundukça yanıta yazılır; sayfalama ve COUNT sorgusu yoktur
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") OrderExportService.Format format) {
+        boolean csv = format == OrderExportService.Format.CSV;
+        StreamingResponseBody body = output -> orderExportService.exportOrders(from, to, format, output);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "orders.csv" : "orders.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     // Sipariş durumunu güncelle (Sadece ADMIN rolüne sahip kullanıcılar için)
     // PUT /api/v1/orders/{id}/status
     @PutMapping("/{id}/status")
@@ -93,4 +205,12 @@ public class OrderController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT); // 204 No Content döndür
     }
 
+    // Toplu iptal (ör. dolandırıcılık taraması sonrası): tek işlemde, set tabanlı UPDATE'lerle (Sadece ADMIN)
+    // POST /api/v1/orders/cancel  {"orderIds":[1,2,3]}  -> iptal edilen / bulunamayan / iptal edilemeyen id'ler
+    @PostMapping("/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkCancelOrdersResult> cancelOrders(@Valid @RequestBody BulkCancelOrdersRequest request) {
+        return ResponseEntity.ok(orderService.cancelOrders(request.orderIds()));
+    }
+
 }
\ No newline at end of file
@@ -1,29 +1,56 @@
 package com.tkemre.ecommerce.controller;
 
+import com.tkemre.ecommerce.cache.ResourceVersionCache;
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest;
+import com.tkemre.ecommerce.dto.BulkStockUpdateResult;
 import com.tkemre.ecommerce.dto.CreateProductRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
+import com.tkemre.ecommerce.dto.FacetedProductsDto;
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
+import com.tkemre.ecommerce.dto.ProductImportResult;
 import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
 import com.tkemre.ecommerce.dto.UpdateProductRequest;
+import com.tkemre.ecommerce.notification.StockFeedHub;
+import com.tkemre.ecommerce.service.KeysetCursor;
+import com.tkemre.ecommerce.service.ProductImportService;
 import com.tkemre.ecommerce.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // Yetkilendirme için
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/v1/products") // Ürün işlemleri için base path
 @SecurityRequirement(name="bearerAuth")
 public class ProductController {
 
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final StockFeedHub stockFeedHub;
+    private final ResourceVersionCache resourceVersions;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             StockFeedHub stockFeedHub, ResourceVersionCache resourceVersions) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.stockFeedHub = stockFeedHub;
+        this.resourceVersions = resourceVersions;
     }
 
     // Yeni ürün oluşturma (Sadece ADMIN rolüne sahip kullanıcılar için)
@@ -35,54 +62,134 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED); // 201 Created döndür
     }
 
+    // CSV veya NDJSON dosyasından toplu ürün yükleme; ürünler ada göre eklenir/güncellenir (Sadece ADMIN)
+    // POST /api/v1/products/import  (Content-Type: text/csv veya application/x-ndjson)
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResult> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        ProductImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        return ResponseEntity.ok(productImportService.importProducts(body, format));
+    }
+
     // Tüm ürünleri listeleme (Herkes erişebilir)
     // GET /api/v1/products?page=0&size=10&sort=name,asc
+    // Yanıt katalog sürümünden üretilen bir ETag taşır; If-None-Match eşleşirse liste okunmadan 304 döner
     @GetMapping
     public ResponseEntity<Page<ProductDto>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,asc") String[] sort) {
-
-        // Sıralama parametrelerini işle
-        Sort sorting = Sort.by(sort[0]);
-        if (sort.length > 1 && sort[1].equalsIgnoreCase("desc")) {
-            sorting = sorting.descending();
-        } else {
-            sorting = sorting.ascending();
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = resourceVersions.catalogETag(); // Liste okunmadan önce alınmalı
+        if (ResourceVersionCache.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
         }
+
+        // Sıralama parametrelerini işle; yalnızca indeksli alanlara izin verilir
+        Sort sorting = KeysetCursor.parseSort(sort, KeysetCursor.PRODUCT_SORT_FIELDS);
         Pageable pageable = PageRequest.of(page, size, sorting);
 
         Page<ProductDto> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products); // 200 OK döndür
+        return ResponseEntity.ok().eTag(etag).body(products); // 200 OK döndür
+    }
+
+    // Tüm ürünleri keyset (cursor) sayfalama ile listeleme (Herkes erişebilir)
+    // GET /api/v1/products/scroll?size=10&sort=price,asc  -> sonraki sayfa: &cursor=<nextCursor>
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ProductDto>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort) {
+        KeysetCursor keysetCursor = KeysetCursor.of(cursor, sort, KeysetCursor.PRODUCT_SORT_FIELDS);
+        return ResponseEntity.ok(productService.scrollProducts(keysetCursor, KeysetCursor.clampSize(size)));
     }
 
     // ID'ye göre ürün getirme (Herkes erişebilir)
     // GET /api/v1/products/{id}
+    // ETag satır sürümünden üretilir; sürüm cache'i sıcakken If-None-Match eşleşmesi ürün okunmadan 304 ile yanıtlanır
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = resourceVersions.cachedProductETag(id);
+        if (cachedETag != null && ResourceVersionCache.matches(ifNoneMatch, cachedETag)) {
+            return notModified(cachedETag);
+        }
+
+        long stamp = resourceVersions.productStamp(id);
         ProductDto product = productService.getProductById(id);
-        return ResponseEntity.ok(product); // 200 OK döndür
+        resourceVersions.putProduct(product, stamp);
+        // Yüklenen sürüm If-None-Match ile eşleşirse Spring gövdesiz 304 döner
+        return ResponseEntity.ok().eTag(ResourceVersionCache.productETag(id, product.version())).body(product); // 200 OK döndür
     }
 
-    // Kategoriye göre ürünleri listeleme (Herkes erişebilir)
+    // Kategoriye göre ürünleri listeleme (Herkes erişebilir); tüm liste gibi katalog sürümüyle ETag'lenir
     // GET /api/v1/products/category/{categoryName}?page=0&size=10
     @GetMapping("/category/{categoryName}")
     public ResponseEntity<Page<ProductDto>> getProductsByCategory(
             @PathVariable String categoryName,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,asc") String[] sort) {
-
-        Sort sorting = Sort.by(sort[0]);
-        if (sort.length > 1 && sort[1].equalsIgnoreCase("desc")) {
-            sorting = sorting.descending();
-        } else {
-            sorting = sorting.ascending();
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = resourceVersions.catalogETag(); // Liste okunmadan önce alınmalı
+        if (ResourceVersionCache.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
         }
+
+        // Sıralama parametrelerini işle; yalnızca indeksli alanlara izin verilir
+        Sort sorting = KeysetCursor.parseSort(sort, KeysetCursor.PRODUCT_SORT_FIELDS);
         Pageable pageable = PageRequest.of(page, size, sorting);
 
         Page<ProductDto> products = productService.getProductsByCategory(categoryName, pageable);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(etag).body(products);
+    }
+
+    // Ürün adı ve kategorisinde tam metin arama; önek ve tek harflik yazım hatalarını tolere eder (Herkes erişebilir).
+    // catalog.search.enabled kapalıyken yalnızca ad içinde geçen aktif ürünler döner.
+    // GET /api/v1/products/search?q=kablosuz klavye&page=0&size=10
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductDto>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), KeysetCursor.clampSize(size));
+        return ResponseEntity.ok(productService.searchProducts(q, pageable));
+    }
+
+    // Faset filtreleme: aynı fasetteki değerler OR, fasetler arası AND; yanıt faset sayılarını da içerir (Herkes erişebilir).
+    // catalog.facets.enabled kapalıyken filtreleme veritabanında yapılır ve faset sayıları boş döner.
+    // GET /api/v1/products/facets?category=Electronics&category=Books&priceBand=50-100&inStock=true&active=true
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedProductsDto> filterProducts(
+            @RequestParam(required = false) Set<String> category,
+            @RequestParam(required = false) Set<String> priceBand,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "true") Boolean active,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ProductFacetFilter filter = ProductFacetFilter.builder()
+                .categories(category)
+                .priceBands(priceBand)
+                .inStock(inStock)
+                .active(active)
+                .build();
+        Pageable pageable = PageRequest.of(Math.max(page, 0), KeysetCursor.clampSize(size));
+        return ResponseEntity.ok(productService.filterProducts(filter, pageable));
+    }
+
+    // Arama kutusu için otomatik tamamlama: öneke uyan en çok satan ürün adları (Herkes erişebilir).
+    // catalog.suggest.enabled kapalıyken öneke uyan adlar alfabetik sırayla döner.
+    // GET /api/v1/products/suggest?prefix=kab&limit=10
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDto>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))));
     }
 
     // Ürün güncelleme (Sadece ADMIN rolüne sahip kullanıcılar için)
@@ -111,4 +218,24 @@ public class ProductController {
         ProductDto updatedProduct = productService.updateProductStock(id, quantity);
         return ResponseEntity.ok(updatedProduct);
     }
-}
\ No newline at end of file
+
+    // Depo senkronizasyonu: çok sayıda ürünün stoğunu tek işlemde, batch UPDATE'lerle günceller (Sadece ADMIN)
+    // PATCH /api/v1/products/stock  {"mode":"DELTA","items":[{"productId":1,"quantity":-3}, ...]}
+    @PatchMapping("/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkStockUpdateResult> bulkUpdateStock(@Valid @RequestBody BulkStockUpdateRequest request) {
+        return ResponseEntity.ok(productService.bulkUpdateStock(request));
+    }
+
+    // Verilen ürünlerin stok ve aktiflik değişikliklerini Server-Sent Events ile akıtır (ürün sayfasını yeniden okumak yerine)
+    // GET /api/v1/products/stock/stream?ids=1,2,3  (Accept: text/event-stream)
+    // İlk olay güncel değerlerdir; sonrasında yalnızca değişen ürünler, pencere başına en fazla bir kez gönderilir
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockLevels(@RequestParam Set<Long> ids) {
+        return stockFeedHub.subscribe(ids);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -2,8 +2,10 @@ package com.tkemre.ecommerce.controller;
 
 import com.tkemre.ecommerce.dto.AddressDto;
 import com.tkemre.ecommerce.dto.AddressRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.UpdateUserRequest;
 import com.tkemre.ecommerce.dto.UserDto;
+import com.tkemre.ecommerce.service.KeysetCursor;
 import com.tkemre.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -76,18 +78,24 @@ public class UserController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,asc") String[] sort) { // Sayfalama ve sıralama parametreleri
 
-        // Sıralama parametrelerini işle
-        Sort sorting = Sort.by(sort[0]);
-        if (sort.length > 1 && sort[1].equalsIgnoreCase("desc")) {
-            sorting = sorting.descending();
-        } else {
-            sorting = sorting.ascending();
-        }
+        // Sıralama parametrelerini işle; yalnızca indeksli alanlara izin verilir
+        Sort sorting = KeysetCursor.parseSort(sort, KeysetCursor.USER_SORT_FIELDS);
         Pageable pageable = PageRequest.of(page, size, sorting);
 
         Page<UserDto> users = userService.getAllUsers(pageable);
         return ResponseEntity.ok(users);
     }
 
+    // GET /api/v1/users/all/scroll?size=10&sort=username,asc  -> sonraki sayfa: &cursor=<nextCursor>
+    @GetMapping("/all/scroll")
+    @PreAuthorize("hasRole('ADMIN')") // Sadece ADMIN rolüne sahip kullanıcılar erişebilir
+    public ResponseEntity<CursorPage<UserDto>> scrollAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort) {
+        KeysetCursor keysetCursor = KeysetCursor.of(cursor, sort, KeysetCursor.USER_SORT_FIELDS);
+        return ResponseEntity.ok(userService.scrollUsers(keysetCursor, KeysetCursor.clampSize(size)));
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.tkemre.ecommerce.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+// Admin toplu sipariş iptali isteği; tek çağrının süresini sınırlı tutmak için id sayısı sınırlıdır
+@Builder
+public record BulkCancelOrdersRequest(
+        @NotEmpty(message = "Order IDs cannot be empty")
+        @Size(max = 10000, message = "At most 10000 orders can be canceled in one request")
+        List<@NotNull(message = "Order ID cannot be null") Long> orderIds
+) {}
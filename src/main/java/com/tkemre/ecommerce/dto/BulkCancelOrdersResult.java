@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.dto;
+
+import java.util.List;
+
+// Toplu iptalin sipariş bazında sonucu; her istenen id listelerden tam olarak birinde yer alır
+public record BulkCancelOrdersResult(
+        List<Long> canceled, // İptal edilen siparişler
+        List<Long> notFound, // Bulunamayan sipariş id'leri
+        List<Long> notCancelable, // Durumu (SHIPPED, DELIVERED, CANCELED) iptale izin vermeyen siparişler
+        long releasedUnits // Stoğa geri eklenen toplam adet
+) {}
@@ -0,0 +1,30 @@
+package com.tkemre.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.util.List;
+
+// Depo (WMS) senkronizasyonu için toplu stok güncelleme isteği
+@Builder
+public record BulkStockUpdateRequest(
+        @NotNull(message = "Stock update mode cannot be null")
+        Mode mode, // ABSOLUTE: stok verilen değere eşitlenir, DELTA: verilen miktar eklenir/çıkarılır
+        @NotEmpty(message = "Stock updates cannot be empty")
+        List<@Valid Item> items
+) {
+    public enum Mode {
+        ABSOLUTE,
+        DELTA
+    }
+
+    @Builder
+    public record Item(
+            @NotNull(message = "Product ID cannot be null")
+            Long productId,
+            @NotNull(message = "Quantity cannot be null")
+            Integer quantity
+    ) {}
+}
@@ -0,0 +1,10 @@
+package com.tkemre.ecommerce.dto;
+
+import java.util.List;
+
+// Toplu stok güncellemesinin kısa özeti; yalnızca uygulanamayan id'ler listelenir
+public record BulkStockUpdateResult(
+        int updated, // Uygulanan ürün sayısı
+        List<Long> notFound, // Bulunamayan ürün id'leri
+        List<Long> rejected // Stoğu negatife düşüreceği için uygulanmayan ürün id'leri
+) {}
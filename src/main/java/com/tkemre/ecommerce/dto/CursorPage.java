@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.dto;
+
+import java.util.List;
+
+// Keyset (cursor) sayfalamalı listelerin yanıtı; COUNT sorgusu çalıştırılmadığı için toplam sayı içermez
+public record CursorPage<T>(
+        List<T> content, // Bu sayfadaki kayıtlar
+        int size, // İstenen sayfa boyutu
+        String nextCursor, // Sonraki sayfa için opak token (son sayfada null)
+        boolean hasNext // Devamında kayıt olup olmadığı
+) {}
@@ -0,0 +1,10 @@
+package com.tkemre.ecommerce.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+public record FacetedProductsDto(
+        Page<ProductDto> products,
+        Map<String, Map<String, Integer>> facets // faset -> (değer -> eşleşen ürün sayısı)
+) {}
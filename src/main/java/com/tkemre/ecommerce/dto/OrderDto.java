@@ -15,5 +15,6 @@ public record OrderDto(
         Set<OrderItemDto> orderItems, // Sipariş içerisindeki tüm ürün kalemleri
         LocalDateTime orderDate, // Siparişin verildiği tarih
         BigDecimal totalPrice, // Siparişin toplam tutarı
-        OrderStatus status // Siparişin mevcut durumu
+        OrderStatus status, // Siparişin mevcut durumu
+        Long version // Satır sürümü; ETag bu değerden üretilir
 ) {}
\ No newline at end of file
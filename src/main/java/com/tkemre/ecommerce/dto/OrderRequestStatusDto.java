@@ -0,0 +1,19 @@
+package com.tkemre.ecommerce.dto;
+
+import lombok.Builder;
+
+// Asenkron kabul edilen (202) bir sipariş isteğinin durumu
+@Builder
+public record OrderRequestStatusDto(
+        String token, // İsteği takip etmek için verilen anahtar
+        Status status, // İsteğin işlenme durumu
+        Long orderId, // Sipariş oluşturulduysa id'si (GET /api/v1/orders/{id})
+        String error // Sipariş reddedildiyse nedeni
+) {
+
+    public enum Status {
+        QUEUED,
+        COMPLETED,
+        FAILED
+    }
+}
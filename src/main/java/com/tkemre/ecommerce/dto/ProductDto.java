@@ -10,5 +10,6 @@ public record ProductDto(
         String category,
         BigDecimal price,
         Integer stock,
-        Boolean active
+        Boolean active,
+        Long version // Satır sürümü; ETag bu değerden üretilir
 ) {}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.tkemre.ecommerce.dto;
+
+import lombok.Builder;
+
+import java.util.Set;
+
+// Faset filtresi: aynı fasetteki değerler OR, fasetler arası AND ile birleşir; null/boş faset filtrelemez
+@Builder
+public record ProductFacetFilter(
+        Set<String> categories,
+        Set<String> priceBands, // Ör. "50-100", "1000+"
+        Boolean inStock,
+        Boolean active
+) {}
@@ -0,0 +1,17 @@
+package com.tkemre.ecommerce.dto;
+
+import java.util.List;
+
+// Toplu ürün yüklemesinin özeti; hata listesi product.import.max-errors ile sınırlıdır
+public record ProductImportResult(
+        long processedRows, // Okunan veri satırı sayısı (başlık ve boş satırlar hariç)
+        long importedRows, // Eklenen veya güncellenen ürün sayısı
+        long failedRows, // Doğrulama veya veritabanı hatası nedeniyle yüklenemeyen satır sayısı
+        List<RowError> errors,
+        boolean errorsTruncated // Hata sayısı limiti aştıysa true
+) {
+    public record RowError(
+            long line, // Dosyadaki satır numarası (1'den başlar)
+            String message
+    ) {}
+}
@@ -0,0 +1,10 @@
+package com.tkemre.ecommerce.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ProductSuggestionDto(
+        Long id,
+        String name,
+        Long popularity // Toplam satış adedi
+) {}
@@ -0,0 +1,4 @@
+package com.tkemre.ecommerce.event;
+
+// Bir sipariş tamamen silindiğinde yayınlanır (OrderServiceImpl.deleteOrder). Dinleyiciler commit sonrasında çalışır.
+public record OrderDeletedEvent(Long orderId) {}
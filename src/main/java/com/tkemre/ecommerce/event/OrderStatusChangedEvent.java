@@ -0,0 +1,19 @@
+package com.tkemre.ecommerce.event;
+
+import com.tkemre.ecommerce.model.OrderStatus;
+
+import java.util.List;
+
+// Bir veya daha fazla siparişin durumu değiştiğinde yayınlanır (OrderServiceImpl: durum güncelleme, iptal, toplu iptal,
+// süre aşımı). Dinleyiciler commit sonrasında çalışır; geri alınan değişiklikler bildirilmez.
+public record OrderStatusChangedEvent(
+        OrderStatus status, // Siparişlerin yeni durumu
+        List<OrderRef> orders // Durumu değişen siparişler
+) {
+
+    public OrderStatusChangedEvent {
+        orders = List.copyOf(orders);
+    }
+
+    public record OrderRef(Long orderId, Long userId) {}
+}
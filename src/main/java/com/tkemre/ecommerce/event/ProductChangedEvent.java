@@ -0,0 +1,26 @@
+package com.tkemre.ecommerce.event;
+
+import java.util.Set;
+
+// Ürün verisi değiştiğinde yayınlanır (ProductServiceImpl yazmaları ve OrderServiceImpl stok değişiklikleri).
+// Bellek içi yapılar (cache vb.) bu olayı dinleyerek yalnızca etkilenen ürünleri günceller.
+public record ProductChangedEvent(
+        Set<Long> productIds, // Değişen ürünlerin id'leri
+        ChangeType type // Değişikliğin türü
+) {
+
+    public ProductChangedEvent {
+        productIds = Set.copyOf(productIds); // Çağıranın (ör. TreeMap.keySet) canlı görünümünü tutma
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STOCK_CHANGED,
+        DELETED
+    }
+
+    public static ProductChangedEvent of(Long productId, ChangeType type) {
+        return new ProductChangedEvent(Set.of(productId), type);
+    }
+}
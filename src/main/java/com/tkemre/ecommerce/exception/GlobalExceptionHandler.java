@@ -1,10 +1,13 @@
 package com.tkemre.ecommerce.exception;
 
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException; // AccessDeniedException import'u
 import org.springframework.web.bind.MethodArgumentNotValidException; // Validasyon hataları için
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
@@ -39,9 +42,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST); // 400 Bad Request yanıtı döndür
     }
 
+    // @Version çakışması: satır okunduktan sonra başka bir işlem tarafından değiştirildi (ör. eşzamanlı checkout stok düşümü)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = ErrorResponse.of(
+                "Kayıt siz okurken başka bir işlem tarafından güncellendi; lütfen yeniden okuyup tekrar deneyin.",
+                HttpStatus.CONFLICT
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT); // 409 Conflict yanıtı döndür
+    }
+
     // Genel tüm diğer istisnaları yakalar (fallback)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex, WebRequest request) {
+        // @ResponseStatus ile işaretlenmiş kendi istisnalarımız (404, 409, 400...) kendi durum kodlarıyla döner
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        if (responseStatus != null) {
+            ErrorResponse errorResponse = ErrorResponse.of(ex.getMessage(), responseStatus.code());
+            return new ResponseEntity<>(errorResponse, responseStatus.code());
+        }
+
         // Loglama yapabilirsiniz: ex.printStackTrace();
         ErrorResponse errorResponse = ErrorResponse.of(
                 "Beklenmeyen bir hata oluştu: " + ex.getMessage(), // Hatanın detayını göster
@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY) // HTTP 422: aynı Idempotency-Key farklı bir istekle tekrar kullanıldı
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different order request");
+    }
+}
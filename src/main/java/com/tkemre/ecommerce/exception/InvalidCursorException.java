@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST) // HTTP 400 Bad Request durum kodu döndürür
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super("Invalid paging parameters: " + message);
+    }
+}
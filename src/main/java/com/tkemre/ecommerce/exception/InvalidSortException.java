@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST) // HTTP 400 Bad Request durum kodu döndürür
+public class InvalidSortException extends RuntimeException {
+    public InvalidSortException(String message) {
+        super("Invalid sort parameter: " + message);
+    }
+}
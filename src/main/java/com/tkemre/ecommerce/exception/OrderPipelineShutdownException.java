@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // HTTP 503: uygulama kapanıyor, asenkron sipariş kuyruğu yeni istek almıyor
+public class OrderPipelineShutdownException extends RuntimeException {
+    public OrderPipelineShutdownException() {
+        super("Order pipeline is shutting down, please retry later");
+    }
+}
@@ -0,0 +1,11 @@
+package com.tkemre.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS) // HTTP 429: asenkron sipariş kuyruğu dolu, istemci daha sonra denemeli
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException(int capacity) {
+        super("Order queue is full (" + capacity + " pending orders), please retry later");
+    }
+}
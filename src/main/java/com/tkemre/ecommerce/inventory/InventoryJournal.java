@@ -0,0 +1,133 @@
+package com.tkemre.ecommerce.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Stok defterinin (InventoryLedger) bellek eşlemeli (memory-mapped) ekleme günlüğü.
+// Her kayıt bir ürünün o anki mutlak değerlerini taşır (fark değil); bu yüzden tekrar oynatmada son kayıt kazanır
+// ve yarım yazılmış son kayıt atlanınca yalnızca o değişiklik kaybolur.
+// Kayıt düzeni (32 byte): sequence(8) | productId(8) | available(4) | reserved(4) | crc32c(4) | boş(4)
+final class InventoryJournal implements Closeable {
+
+    static final int RECORD_SIZE = 32;
+    static final int REMOVED = -1; // reserved alanında bu değer: ürün defterden çıkarıldı
+
+    // Tekrar oynatma ve sıkıştırma sırasında kayıtları alan geri çağırma
+    interface RecordSink {
+        void accept(long productId, int available, int reserved);
+    }
+
+    // Sıkıştırmada defterin tüm canlı durumunu yazan kaynak
+    interface Snapshot {
+        int size();
+
+        void writeTo(RecordSink sink);
+    }
+
+    private final Path path;
+    private final int minimumCapacity;
+    private final boolean fsync;
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer buffer;
+    private long lastSequence;
+
+    // Dosya varsa geçerli kayıtları sırayla replay'e verir; ilk bozuk/eksik kayıtta durur ve yazma oradan devam eder
+    InventoryJournal(Path path, int capacity, boolean fsync, RecordSink replay) throws IOException {
+        this.path = path;
+        this.minimumCapacity = Math.max(capacity, RECORD_SIZE * 16);
+        this.fsync = fsync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long existingSize = Files.exists(path) ? Files.size(path) : 0;
+        this.buffer = map(path, Math.max(existingSize, this.minimumCapacity));
+
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            long sequence = buffer.getLong(start);
+            // Sıkıştırılmış günlük kaldığı sequence'tan devam eder; sonrasında kayıtlar ardışık olmalıdır
+            boolean expected = lastSequence == 0 ? sequence > 0 : sequence == lastSequence + 1;
+            if (!expected || buffer.getInt(start + 24) != checksum(buffer, start)) {
+                break;
+            }
+            replay.accept(buffer.getLong(start + 8), buffer.getInt(start + 16), buffer.getInt(start + 20));
+            lastSequence = sequence;
+            buffer.position(start + RECORD_SIZE);
+        }
+    }
+
+    // Yer kalmadıysa false döner; çağıran compact(...) ile günlüğü defterin güncel durumuna indirger
+    boolean append(long productId, int available, int reserved) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            return false;
+        }
+        int start = buffer.position();
+        write(buffer, start, ++lastSequence, productId, available, reserved);
+        buffer.position(start + RECORD_SIZE);
+        if (fsync) {
+            buffer.force(start, RECORD_SIZE);
+        }
+        return true;
+    }
+
+    // Güncel durumu yeni bir dosyaya yazar, diske zorlar ve atomik olarak eski günlüğün yerine koyar.
+    // Yeni dosya en az iki katı kadar boş yer bırakacak şekilde boyutlandırılır.
+    void compact(Snapshot snapshot) throws IOException {
+        Path next = path.resolveSibling(path.getFileName() + ".compact");
+        long capacity = Math.max(minimumCapacity, (long) snapshot.size() * RECORD_SIZE * 2 + RECORD_SIZE);
+        Files.deleteIfExists(next);
+        MappedByteBuffer compacted = map(next, capacity);
+        long[] sequence = {lastSequence};
+        snapshot.writeTo((productId, available, reserved) -> {
+            int start = compacted.position();
+            write(compacted, start, ++sequence[0], productId, available, reserved);
+            compacted.position(start + RECORD_SIZE);
+        });
+        compacted.force();
+        Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        buffer = compacted;
+        lastSequence = sequence[0];
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void write(ByteBuffer target, int start, long sequence, long productId, int available, int reserved) {
+        target.putLong(start, sequence);
+        target.putLong(start + 8, productId);
+        target.putInt(start + 16, available);
+        target.putInt(start + 20, reserved);
+        target.putInt(start + 24, checksum(target, start));
+    }
+
+    private int checksum(ByteBuffer source, int start) {
+        crc.reset();
+        crc.update(source.slice(start, 24));
+        return (int) crc.getValue();
+    }
+
+    private static MappedByteBuffer map(Path file, long capacity) throws IOException {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Inventory journal cannot exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        // Eşleme kanal kapandıktan sonra da geçerlidir
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+}
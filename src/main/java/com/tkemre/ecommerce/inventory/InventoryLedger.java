@@ -0,0 +1,437 @@
+package com.tkemre.ecommerce.inventory;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Stok için bellek içi, yetkili (authoritative) defter (inventory.ledger.enabled=true ile açılır).
+// Satılabilir (available) ve işlemi süren siparişlerce ayrılmış (reserved) miktarlar ürün başına bir slot'ta,
+// ilkel int dizilerinde tutulur. Her değişiklik önce memory-mapped günlüğe (InventoryJournal) yazılır;
+// products.stock sütununa ise arka planda, batch'ler halinde yazılır (write-through).
+// Yeniden başlatmada günlük tekrar oynatılarak sayılar birebir geri kazanılır.
+@Component
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int flushBatchSize;
+    private final InventoryJournal journal;
+
+    private final Map<Long, Integer> slotsByProductId = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] productIds = new long[1024];
+    private int[] available = new int[1024];
+    private int[] reserved = new int[1024];
+    private final BitSet dirty = new BitSet(); // Veritabanına henüz yazılmamış slot'lar
+    private final Object flushLock = new Object(); // Yazımlar sıralanır: flush() döndüğünde önceki yazımlar da bitmiştir
+    private int nextSlot;
+
+    public InventoryLedger(ProductRepository productRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${inventory.ledger.journal-path:data/inventory.journal}") Path journalPath,
+                           @Value("${inventory.ledger.journal-size:67108864}") int journalSize,
+                           @Value("${inventory.ledger.fsync:false}") boolean fsync,
+                           @Value("${inventory.ledger.flush-batch-size:500}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.flushBatchSize = flushBatchSize;
+        try {
+            this.journal = new InventoryJournal(journalPath, journalSize, fsync, this::replay);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Inventory journal could not be opened: " + journalPath, e);
+        }
+    }
+
+    // Ürünleri tek seferde, ya hep ya hiç ayırır. Dönen dizinin i. elemanı map'in i. girdisi için yeterli stok
+    // olup olmadığını gösterir; herhangi biri false ise hiçbir ürün ayrılmaz.
+    public boolean[] reserve(SortedMap<Long, Integer> quantitiesByProductId) {
+        loadMissing(quantitiesByProductId.keySet());
+        synchronized (this) {
+            boolean[] results = new boolean[quantitiesByProductId.size()];
+            boolean all = true;
+            int index = 0;
+            for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+                Integer slot = slotsByProductId.get(entry.getKey());
+                results[index] = slot != null && available[slot] >= entry.getValue();
+                all &= results[index++];
+            }
+            if (all) {
+                quantitiesByProductId.forEach((productId, quantity) -> {
+                    int slot = slotsByProductId.get(productId);
+                    available[slot] -= quantity;
+                    reserved[slot] += quantity;
+                    record(slot);
+                });
+            }
+            return results;
+        }
+    }
+
+    // Mevcut işleme bağlı ayırma: işlem commit edildikten sonra satışa dönüştürülür, geri alınırsa stok iade edilir.
+    // Onay günlüğe ancak veritabanı commit'inden sonra yazılır; böylece commit edilmemiş bir sipariş stoğu hiçbir zaman
+    // satılmış saymaz. Çökmede açık kalan ayırmalar açılışta iade edilir (bkz. recover()); commit ile onay kaydı
+    // arasındaki kısa pencerede çökülürse commit edilmiş siparişin ayırması da iade edilir ve stok o kadar fazla görünür.
+    public boolean[] reserveForTransaction(SortedMap<Long, Integer> quantitiesByProductId) {
+        boolean[] results = reserve(quantitiesByProductId);
+        for (boolean result : results) {
+            if (!result) {
+                return results;
+            }
+        }
+        transactionReservations().reservations.add(new TreeMap<>(quantitiesByProductId));
+        return results;
+    }
+
+    // Tek işlemde birden çok siparişi JDBC savepoint'leriyle çalıştıranlar (grup commit) için: mevcut işlemin o ana
+    // kadarki ayırma sayısı. rollbackToSavepoint(...) bu noktadan sonraki ayırmaları işlem bitmeden stoğa geri verir.
+    public int savepoint() {
+        TransactionReservations reservations = (TransactionReservations) TransactionSynchronizationManager.getResource(this);
+        return reservations == null ? 0 : reservations.reservations.size();
+    }
+
+    public void rollbackToSavepoint(int savepoint) {
+        TransactionReservations reservations = (TransactionReservations) TransactionSynchronizationManager.getResource(this);
+        if (reservations == null) {
+            return;
+        }
+        List<SortedMap<Long, Integer>> undone = reservations.reservations.subList(savepoint, reservations.reservations.size());
+        undone.forEach(this::release);
+        undone.clear();
+    }
+
+    // Ayrılan miktarı satılmış sayar (available zaten düşmüştü)
+    public synchronized void confirm(SortedMap<Long, Integer> quantitiesByProductId) {
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            Integer slot = slotsByProductId.get(productId);
+            if (slot != null) {
+                reserved[slot] -= quantity;
+                record(slot);
+            }
+        });
+    }
+
+    // Ayrılan miktarı satılabilir stoğa geri verir
+    public synchronized void release(SortedMap<Long, Integer> quantitiesByProductId) {
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            Integer slot = slotsByProductId.get(productId);
+            if (slot != null) {
+                reserved[slot] -= quantity;
+                available[slot] += quantity;
+                record(slot);
+            }
+        });
+    }
+
+    // İptal/iade: satılmış miktarı stoğa geri ekler; ürün bulunamazsa ilgili eleman false döner
+    public boolean[] restock(SortedMap<Long, Integer> quantitiesByProductId) {
+        return adjustAvailable(quantitiesByProductId);
+    }
+
+    // Mevcut işlem commit edildikten sonra restock(...) uygular (ör. sipariş iptali)
+    public void restockAfterCommit(SortedMap<Long, Integer> quantitiesByProductId) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>(quantitiesByProductId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restock(quantities);
+            }
+        });
+    }
+
+    // Admin/depo senkronizasyonu: satılabilir stoğu verilen değere eşitler
+    public boolean[] setAvailable(SortedMap<Long, Integer> stockByProductId) {
+        loadMissing(stockByProductId.keySet());
+        synchronized (this) {
+            boolean[] results = new boolean[stockByProductId.size()];
+            int index = 0;
+            for (Map.Entry<Long, Integer> entry : stockByProductId.entrySet()) {
+                Integer slot = slotsByProductId.get(entry.getKey());
+                if (slot != null) {
+                    available[slot] = entry.getValue();
+                    record(slot);
+                    results[index] = true;
+                }
+                index++;
+            }
+            return results;
+        }
+    }
+
+    // Satılabilir stoğa fark ekler; sonuç negatif olacaksa o ürün değişmez ve false döner
+    public boolean[] adjustAvailable(SortedMap<Long, Integer> deltasByProductId) {
+        loadMissing(deltasByProductId.keySet());
+        synchronized (this) {
+            boolean[] results = new boolean[deltasByProductId.size()];
+            int index = 0;
+            for (Map.Entry<Long, Integer> entry : deltasByProductId.entrySet()) {
+                Integer slot = slotsByProductId.get(entry.getKey());
+                if (slot != null && available[slot] + entry.getValue() >= 0) {
+                    available[slot] += entry.getValue();
+                    record(slot);
+                    results[index] = true;
+                }
+                index++;
+            }
+            return results;
+        }
+    }
+
+    // Defterde olmayan ürün için null döner
+    public synchronized Integer available(Long productId) {
+        Integer slot = slotsByProductId.get(productId);
+        return slot == null ? null : available[slot];
+    }
+
+    public synchronized Integer reserved(Long productId) {
+        Integer slot = slotsByProductId.get(productId);
+        return slot == null ? null : reserved[slot];
+    }
+
+    // Silinen ürün defterden çıkarılır; import gibi stoğu doğrudan yazan güncellemelerde değer veritabanından yeniden okunur.
+    // (Bu arada yazılmayı bekleyen eski bir değer veritabanına ulaşırsa import'un stoğu ezilebilir; stok değişiklikleri için
+    // stok endpoint'leri tercih edilmelidir.)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            synchronized (this) {
+                event.productIds().forEach(this::remove);
+            }
+        } else if (event.type() == ChangeType.UPDATED) {
+            List<Product> products = productRepository.findAllById(event.productIds());
+            synchronized (this) {
+                for (Product product : products) {
+                    Integer slot = slotsByProductId.get(product.getId());
+                    if (slot != null && available[slot] != product.getStock()) {
+                        available[slot] = product.getStock();
+                        record(slot);
+                    }
+                }
+            }
+        }
+    }
+
+    // Kirli slot'ları batch'ler halinde products.stock'a yazar; ardından cache ve indeksler bilgilendirilir.
+    // Bir batch yazılamazsa false döner; slot'lar kirli kalır ve bir sonraki flush'ta yeniden denenir.
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:PT0.2S}")
+    public boolean flush() {
+        synchronized (flushLock) {
+            while (true) {
+                SortedMap<Long, Integer> batch = new TreeMap<>();
+                synchronized (this) {
+                    for (int slot = dirty.nextSetBit(0); slot >= 0 && batch.size() < flushBatchSize; slot = dirty.nextSetBit(slot + 1)) {
+                        batch.put(productIds[slot], available[slot]);
+                        dirty.clear(slot);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return true;
+                }
+                try {
+                    productRepository.setStock(batch);
+                } catch (RuntimeException e) {
+                    markDirty(batch.keySet());
+                    log.warn("Inventory write-through of {} products failed; will retry", batch.size(), e);
+                    return false;
+                }
+                eventPublisher.publishEvent(new ProductChangedEvent(batch.keySet(), ChangeType.STOCK_CHANGED));
+            }
+        }
+    }
+
+    // Kapanışta bekleyen değişiklikler veritabanına yazılır; yazılamazsa bir sonraki açılışta günlükten gelir
+    @PreDestroy
+    public void close() {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                journal.close();
+            }
+        }
+    }
+
+    // Mevcut işlemin ayırmaları; işlem başına tek synchronization, ilk ayırmada bağlanır
+    private TransactionReservations transactionReservations() {
+        TransactionReservations reservations = (TransactionReservations) TransactionSynchronizationManager.getResource(this);
+        if (reservations == null) {
+            reservations = new TransactionReservations();
+            TransactionSynchronizationManager.bindResource(this, reservations);
+            TransactionSynchronizationManager.registerSynchronization(reservations);
+        }
+        return reservations;
+    }
+
+    private final class TransactionReservations implements TransactionSynchronization {
+        private final List<SortedMap<Long, Integer>> reservations = new ArrayList<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryLedger.this);
+            if (status == STATUS_COMMITTED) {
+                reservations.forEach(InventoryLedger.this::confirm);
+            } else {
+                reservations.forEach(InventoryLedger.this::release);
+            }
+        }
+    }
+
+    // Veritabanından henüz okunmamış ürünleri deftere ekler (ilk dokunuşta tembel yükleme)
+    private void loadMissing(Collection<Long> ids) {
+        List<Long> missing;
+        synchronized (this) {
+            missing = ids.stream().filter(id -> !slotsByProductId.containsKey(id)).toList();
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Product> products = productRepository.findAllById(missing);
+        synchronized (this) {
+            for (Product product : products) {
+                if (!slotsByProductId.containsKey(product.getId())) {
+                    int slot = allocate(product.getId());
+                    available[slot] = product.getStock();
+                    journalAppend(slot);
+                }
+            }
+        }
+    }
+
+    // Günlük tekrar oynatması: mutlak değerler olduğu için ürünün son kaydı geçerlidir
+    private void replay(long productId, int availableCount, int reservedCount) {
+        if (reservedCount == InventoryJournal.REMOVED) {
+            remove(productId);
+            return;
+        }
+        Integer slot = slotsByProductId.get(productId);
+        if (slot == null) {
+            slot = allocate(productId);
+        }
+        available[slot] = availableCount;
+        reserved[slot] = reservedCount;
+        dirty.set(slot); // Veritabanı çökme öncesinde geride kalmış olabilir
+    }
+
+    // Çökme anında açık kalan ayırmalar onaylanmamıştır; işlemleri (neredeyse her zaman) commit edilmemiştir ve
+    // stoğa geri verilir (bkz. reserveForTransaction). Ardından günlük güncel duruma sıkıştırılır.
+    private void recover() throws IOException {
+        int released = 0;
+        for (int slot : slotsByProductId.values()) {
+            if (reserved[slot] > 0) {
+                available[slot] += reserved[slot];
+                released += reserved[slot];
+            }
+            reserved[slot] = 0;
+        }
+        if (!slotsByProductId.isEmpty()) {
+            log.info("Inventory ledger recovered {} products from journal ({} reserved units released)",
+                    slotsByProductId.size(), released);
+        }
+        journal.compact(snapshot());
+    }
+
+    // Çağıran kilidi tutmalıdır
+    private void record(int slot) {
+        journalAppend(slot);
+        dirty.set(slot);
+    }
+
+    private void journalAppend(int slot) {
+        if (!journal.append(productIds[slot], available[slot], reserved[slot])) {
+            compactJournal();
+        }
+    }
+
+    // Günlük doldu: güncel durum (son değişiklik dahil) yeni dosyaya yazılır
+    private void compactJournal() {
+        try {
+            journal.compact(snapshot());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Inventory journal could not be compacted", e);
+        }
+    }
+
+    private void markDirty(Collection<Long> ids) {
+        synchronized (this) {
+            for (Long id : ids) {
+                Integer slot = slotsByProductId.get(id);
+                if (slot != null) {
+                    dirty.set(slot);
+                }
+            }
+        }
+    }
+
+    private int allocate(long productId) {
+        Integer free = freeSlots.poll();
+        int slot = free != null ? free : nextSlot++;
+        if (slot == productIds.length) {
+            productIds = Arrays.copyOf(productIds, slot * 2);
+            available = Arrays.copyOf(available, slot * 2);
+            reserved = Arrays.copyOf(reserved, slot * 2);
+        }
+        productIds[slot] = productId;
+        available[slot] = 0;
+        reserved[slot] = 0;
+        slotsByProductId.put(productId, slot);
+        return slot;
+    }
+
+    private void remove(long productId) {
+        Integer slot = slotsByProductId.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        dirty.clear(slot);
+        freeSlots.push(slot);
+        // Tekrar oynatma sırasında (journal henüz atanmamışken) kayıt yazılmaz
+        if (journal != null && !journal.append(productId, 0, InventoryJournal.REMOVED)) {
+            compactJournal();
+        }
+    }
+
+    private InventoryJournal.Snapshot snapshot() {
+        List<Integer> slots = new ArrayList<>(slotsByProductId.values());
+        return new InventoryJournal.Snapshot() {
+            @Override
+            public int size() {
+                return slots.size();
+            }
+
+            @Override
+            public void writeTo(InventoryJournal.RecordSink sink) {
+                slots.forEach(slot -> sink.accept(productIds[slot], available[slot], reserved[slot]));
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.tkemre.ecommerce.model;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+// Idempotency-Key ile oluşturulan siparişin kaydı; siparişle aynı işlemde yazılır.
+// Yeniden başlatmadan sonra gelen tekrarlar da bu kayıtla aynı siparişe yönlendirilir.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"username", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_records_seq")
+    @SequenceGenerator(name = "idempotency_records_seq", sequenceName = "idempotency_records_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash; // Aynı anahtarın farklı bir istekle kullanılmasını yakalamak için
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // İsteğin SHA-256 parmak izi (adres + satırlar, gönderildiği sırayla)
+    public static String fingerprint(CreateOrderRequest request) {
+        StringBuilder canonical = new StringBuilder().append(request.shippingAddressId());
+        for (CreateOrderItemRequest item : request.items()) {
+            canonical.append('|').append(item.productId()).append(':').append(item.quantity());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
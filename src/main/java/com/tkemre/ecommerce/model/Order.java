@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode; // Bu import'u ekleyin
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,11 +18,17 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Kullanıcının siparişlerini tarihe göre keyset sayfalama için
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id"),
+        // Süresi dolan PENDING siparişleri tabloyu taramadan, tarih sırasıyla bulmak için
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,4 +53,10 @@ public class Order {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
+
+    // Satır sürümü: her durum değişikliğinde artar (toplu JPQL güncellemeleri dahil); ETag'ler için
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
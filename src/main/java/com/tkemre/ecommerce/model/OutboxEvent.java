@@ -0,0 +1,48 @@
+package com.tkemre.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Dış sistemlere (sevkiyat, e-posta, analitik) iletilecek sipariş olayı; siparişi değiştiren işlemle aynı işlemde yazılır.
+// Dağıtıcı olayları id sırasıyla okur ve iletildikten sonra siler; bu yüzden tablo yalnızca bekleyen olayları tutar.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        CANCELED,
+        DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    // JSON özeti; CREATED olayı her sipariş kalemini taşır ve kalem sayısı sınırsızdır, bu yüzden sabit uzunluklu
+    // bir sütun büyük siparişleri (ve onlarla birlikte checkout'u) reddederdi
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
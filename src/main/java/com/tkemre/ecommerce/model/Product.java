@@ -5,23 +5,34 @@ import lombok.AllArgsConstructor;
 import lombok.Builder; // @Builder anotasyonunu kullanmak için import ekle
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Fiyata göre keyset sayfalama için (name ve normalized_name zaten unique indeksli)
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Büyük/küçük harf duyarsız benzersizlik için name'in küçük harfli hali; unique kısıt veritabanında uygulanır.
+    // NOT NULL, eski satırlar doldurulduktan sonra açılışta eklenir (bkz. ProductNameBackfill)
+    @Column(name = "normalized_name", unique = true)
+    private String normalizedName;
+
     @Column(nullable = false)
     private String category; // Ürün kategorisi
 
@@ -34,4 +45,20 @@ public class Product {
     @Builder.Default
     @Column(nullable = false)
     private Boolean active = true; // Ürünün aktif olup olmadığını belirtir (varsayılan olarak aktif).
-}
\ No newline at end of file
+
+    // Satır sürümü: her güncellemede artar (JDBC stok SQL'leri dahil); ETag'ler ve iyimser kilitleme için
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        this.normalizedName = normalizeName(name);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,204 @@
+package com.tkemre.ecommerce.notification;
+
+import com.tkemre.ecommerce.event.OrderStatusChangedEvent;
+import com.tkemre.ecommerce.exception.UserNotFoundException;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Sipariş durum değişikliklerini kullanıcıların açık SSE bağlantılarına iletir. Bağlantılar asenkron servlet
+// desteğiyle tutulur (boşta bekleyen bağlantı thread tutmaz). Olaylar tek bir fan-out thread'inde id sırasıyla
+// bağlantıların sınırlı kuyruklarına eklenir ve gönderim havuzunda yazılır (bkz. SseConnection); yavaş bir istemci
+// diğerlerini bekletmez, kuyruğunu taşıranın bağlantısı kapatılır. Son olaylar bir halka tamponda tutulur: yeniden bağlanan
+// istemci Last-Event-ID ile kaçırdıklarını alır; tampon yetmezse "resync" olayıyla siparişleri yeniden okuması istenir.
+@Component
+public class OrderStatusHub {
+
+    public static final String STATUS_EVENT = "order-status";
+    public static final String RESYNC_EVENT = "resync";
+
+    // İstemciye giden olay (id, SSE olay id'sidir)
+    public record StatusUpdate(long id, Long orderId, OrderStatus status, LocalDateTime changedAt) {}
+
+    private record BufferedUpdate(Long userId, StatusUpdate update) {}
+
+    private final UserRepository userRepository;
+    private final long timeoutMillis;
+    private final int subscriberQueueSize;
+    private final BufferedUpdate[] buffer;
+    private final long firstEventId; // Önceki süreçten kalan Last-Event-ID'ler her zaman bundan küçüktür
+    private long nextEventId;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-status-hub");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Sabit boyutlu gönderim havuzu: bağlantı sayısı ne olursa olsun en fazla sender-threads kadar thread açılır.
+    // Yavaş soket yazımlarına takılan thread'ler varken diğer bağlantıların boşaltması sırada bekler; bu sürede
+    // kuyruğu taşan bağlantılar kapatılır. Sanal thread kullanılmaz: SseEmitter yazarken monitör tutar, yavaş bir
+    // soket yazımı taşıyıcı thread'i bağlardı.
+    private final ExecutorService senders;
+    private final Counter sent;
+    private final Counter overflows;
+
+    public OrderStatusHub(UserRepository userRepository,
+                          @Value("${orders.stream.timeout:PT30M}") Duration timeout,
+                          @Value("${orders.stream.replay-buffer-size:4096}") int replayBufferSize,
+                          @Value("${orders.stream.subscriber-queue-size:256}") int subscriberQueueSize,
+                          @Value("${orders.stream.sender-threads:16}") int senderThreads,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-status-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.buffer = new BufferedUpdate[replayBufferSize];
+        this.firstEventId = System.currentTimeMillis() * 1000;
+        this.nextEventId = firstEventId;
+        meterRegistry.gaugeMapSize("orders.stream.users", List.of(), subscribers);
+        this.sent = meterRegistry.counter("orders.stream.events.sent");
+        this.overflows = meterRegistry.counter("orders.stream.slow-disconnects");
+    }
+
+    // lastEventId: istemcinin aldığı son olay (ilk bağlantıda null)
+    public SseEmitter subscribe(String username, Long lastEventId) {
+        Long userId = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username))
+                .getId();
+        return subscribe(userId, lastEventId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long userId, Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        // Tekrar oynatma ve kayıt fan-out thread'inde yapılır; araya giren canlı olaylar lastSentId ile ayıklanır
+        fanOut.execute(() -> {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        });
+        return emitter;
+    }
+
+    // Değişiklik commit edildikten sonra çağrılır; yayınlayan isteği bekletmemek için gönderim fan-out thread'indedir
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BufferedUpdate> updates = new ArrayList<>(event.orders().size());
+        synchronized (buffer) {
+            for (OrderStatusChangedEvent.OrderRef order : event.orders()) {
+                BufferedUpdate update = new BufferedUpdate(order.userId(),
+                        new StatusUpdate(nextEventId, order.orderId(), event.status(), now));
+                buffer[(int) (nextEventId % buffer.length)] = update;
+                nextEventId++;
+                updates.add(update);
+            }
+            // Kuyruğa alma sırası id sırasıyla aynı olsun diye kilit içinde
+            fanOut.execute(() -> updates.forEach(this::deliver));
+        }
+    }
+
+    // Proxy'ler ve yük dengeleyiciler boşta kalan bağlantıları kapatmasın diye SSE yorum satırı gönderilir
+    @Scheduled(fixedRateString = "${orders.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        fanOut.execute(() -> subscribers.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.send(SseEmitter.event().comment("heartbeat")))));
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOut.shutdownNow();
+        subscribers.values().forEach(userSubscribers ->
+                List.copyOf(userSubscribers).forEach(subscriber -> subscriber.connection.complete()));
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private void deliver(BufferedUpdate update) {
+        Set<Subscriber> userSubscribers = subscribers.get(update.userId());
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.sendUpdate(update.update()));
+        }
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        List<StatusUpdate> missed = new ArrayList<>();
+        boolean complete;
+        synchronized (buffer) {
+            long oldest = Math.max(firstEventId, nextEventId - buffer.length);
+            complete = lastEventId >= oldest - 1 && lastEventId < nextEventId;
+            for (long id = Math.max(lastEventId + 1, oldest); complete && id < nextEventId; id++) {
+                BufferedUpdate update = buffer[(int) (id % buffer.length)];
+                if (update.userId().equals(subscriber.userId)) {
+                    missed.add(update.update());
+                }
+            }
+        }
+        if (!complete || missed.size() > subscriberQueueSize) {
+            // Aradaki olaylar artık tamponda değil (veya önceki bir süreçten) ya da bağlantı kuyruğuna sığmıyor:
+            // istemci siparişlerini yeniden okumalı
+            subscriber.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+            return;
+        }
+        missed.forEach(subscriber::sendUpdate);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    // lastSentId'yi yalnızca fan-out thread'i değiştirir
+    private final class Subscriber {
+        private final Long userId;
+        private final SseConnection connection;
+        private long lastSentId = Long.MIN_VALUE;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.connection = new SseConnection(emitter, subscriberQueueSize, senders, overflows, () -> unsubscribe(this));
+        }
+
+        void sendUpdate(StatusUpdate update) {
+            if (update.id() <= lastSentId) {
+                return;
+            }
+            lastSentId = update.id();
+            if (send(SseEmitter.event()
+                    .id(Long.toString(update.id()))
+                    .name(STATUS_EVENT)
+                    .data(update, MediaType.APPLICATION_JSON))) {
+                sent.increment();
+            }
+        }
+
+        boolean send(SseEmitter.SseEventBuilder event) {
+            return connection.send(event);
+        }
+    }
+}
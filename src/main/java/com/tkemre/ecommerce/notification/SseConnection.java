@@ -0,0 +1,88 @@
+package com.tkemre.ecommerce.notification;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Tek bir SSE bağlantısına sınırlı bir kuyruk üzerinden gönderir. Hub'ın fan-out thread'i olayları sırayla kuyruğa
+// ekler; kuyruğu bağlantı başına en fazla bir gönderici thread aynı sırayla boşaltır. Böylece yavaş bir
+// istemci fan-out thread'ini ve diğer aboneleri bekletmez. Kuyruğu taşan istemcinin bağlantısı kapatılır; istemci
+// Last-Event-ID ile yeniden bağlanıp kaçırdıklarını alır.
+final class SseConnection {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+    private final Executor sender;
+    private final Counter overflows;
+    private final Runnable onClose;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // onClose: bağlantı hangi yoldan kapanırsa kapansın bir kez çağrılır (abonelikten çıkarma)
+    SseConnection(SseEmitter emitter, int queueSize, Executor sender, Counter overflows, Runnable onClose) {
+        this.emitter = emitter;
+        this.pending = new ArrayBlockingQueue<>(queueSize);
+        this.sender = sender;
+        this.overflows = overflows;
+        this.onClose = onClose;
+        emitter.onCompletion(this::closed);
+        emitter.onError(error -> closed());
+        // Zaman aşımında emitter tamamlanmazsa istek asenkron modda asılı kalır
+        emitter.onTimeout(this::complete);
+    }
+
+    // Olayı gönderim kuyruğuna ekler; bağlantı kapalıysa veya kuyruk taştıysa (bağlantı kapatılır) false döner
+    boolean send(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!pending.offer(event)) {
+            overflows.increment();
+            complete();
+            return false;
+        }
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return true;
+    }
+
+    void complete() {
+        if (closed()) {
+            emitter.complete();
+        }
+    }
+
+    private void drain() {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = pending.poll()) != null) {
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // İstemci bağlantıyı kapattı; emitter kapatılır ve abonelikten çıkarılır
+                    if (closed()) {
+                        emitter.completeWithError(e);
+                    }
+                }
+            }
+            draining.set(false);
+            // Bayrak indirilirken eklenen olay kaçmasın: kuyruk doluysa boşaltmayı bu thread sürdürür
+        } while (!closed.get() && !pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    // Yalnızca ilk çağrıda true döner
+    private boolean closed() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        pending.clear();
+        onClose.run();
+        return true;
+    }
+}
@@ -0,0 +1,211 @@
+package com.tkemre.ecommerce.notification;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.exception.InvalidStockSubscriptionException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Vitrin istemcileri için ürün stok/aktiflik değişiklik akışı (SSE). ProductChangedEvent yalnızca izlenen ürünleri
+// "kirli" olarak işaretler; kirli ürünler her pencerede (catalog.stock-feed.window) tek sorguyla okunur ve değeri
+// gerçekten değişenler abonelere tek olayda gönderilir. Böylece çok satılan bir ürün pencere başına en fazla bir
+// güncelleme üretir. Abone başına bellek, izlediği ürün sayısıyla (max-products-per-subscription) ve gönderilmeyi
+// bekleyen olay kuyruğuyla (subscriber-queue-size) sınırlıdır. Olaylar tek bir fan-out thread'inde hazırlanır ve
+// gönderim havuzunda yazılır (bkz. SseConnection); kuyruğunu taşıran yavaş istemcinin bağlantısı kapatılır ve yeniden
+// bağlandığında güncel değerleri baştan alır.
+@Component
+public class StockFeedHub {
+
+    public static final String STOCK_EVENT = "stock";
+
+    public record StockLevel(Long productId, int stock, boolean active) {}
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ObjectProvider<InventoryLedger> inventoryLedger;
+    private final int maxProductsPerSubscription;
+    private final long timeoutMillis;
+    private final int subscriberQueueSize;
+
+    private final Map<Long, Set<Subscriber>> subscribersByProduct = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Sabit boyutlu gönderim havuzu (sender-threads; bkz. OrderStatusHub)
+    private final ExecutorService senders;
+    private final Counter sent;
+    private final Counter overflows;
+
+    public StockFeedHub(ProductRepository productRepository,
+                        ObjectProvider<InventoryLedger> inventoryLedger,
+                        @Value("${catalog.stock-feed.max-products-per-subscription:100}") int maxProductsPerSubscription,
+                        @Value("${catalog.stock-feed.timeout:PT30M}") Duration timeout,
+                        @Value("${catalog.stock-feed.subscriber-queue-size:64}") int subscriberQueueSize,
+                        @Value("${catalog.stock-feed.sender-threads:8}") int senderThreads,
+                        MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.maxProductsPerSubscription = maxProductsPerSubscription;
+        this.timeoutMillis = timeout.toMillis();
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gaugeMapSize("stock.feed.products", List.of(), subscribersByProduct);
+        this.sent = meterRegistry.counter("stock.feed.updates.sent");
+        this.overflows = meterRegistry.counter("stock.feed.slow-disconnects");
+    }
+
+    public SseEmitter subscribe(Set<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new InvalidStockSubscriptionException("at least one product id is required");
+        }
+        if (productIds.size() > maxProductsPerSubscription) {
+            throw new InvalidStockSubscriptionException("at most " + maxProductsPerSubscription + " products can be watched");
+        }
+        return subscribe(productIds, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Set<Long> productIds, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(Set.copyOf(productIds), emitter);
+        // Önce kayıt, sonra güncel değerler: arada gelen değişiklik sonraki pencerede yine gönderilir
+        fanOut.execute(() -> {
+            subscriber.productIds.forEach(productId ->
+                    subscribersByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(subscriber));
+            subscriber.sendChanged(new ArrayList<>(load(subscriber.productIds).values()));
+        });
+        return emitter;
+    }
+
+    // Yalnızca işaretleme yapar; okuma ve gönderim pencere sonunda toplu yapılır
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (Long productId : event.productIds()) {
+            if (subscribersByProduct.containsKey(productId)) {
+                dirty.add(productId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.stock-feed.window:PT0.5S}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>(dirty);
+        dirty.removeAll(productIds);
+        fanOut.execute(() -> publish(productIds));
+    }
+
+    // Proxy'ler ve yük dengeleyiciler boşta kalan bağlantıları kapatmasın diye SSE yorum satırı gönderilir
+    @Scheduled(fixedRateString = "${catalog.stock-feed.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        fanOut.execute(() -> subscribers().forEach(subscriber -> subscriber.send(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOut.shutdownNow();
+        subscribers().forEach(subscriber -> subscriber.connection.complete());
+        subscribersByProduct.clear();
+        senders.shutdownNow();
+    }
+
+    private void publish(Set<Long> productIds) {
+        Map<Subscriber, List<StockLevel>> updates = new LinkedHashMap<>();
+        for (StockLevel level : load(productIds).values()) {
+            for (Subscriber subscriber : subscribersByProduct.getOrDefault(level.productId(), Set.of())) {
+                updates.computeIfAbsent(subscriber, s -> new ArrayList<>()).add(level);
+            }
+        }
+        updates.forEach(Subscriber::sendChanged);
+    }
+
+    // Stok defteri açıksa satılabilir miktar defterden (veritabanı arka planda güncellenir), aktiflik veritabanından okunur.
+    // Silinmiş ürünler stoksuz ve pasif olarak bildirilir.
+    private Map<Long, StockLevel> load(Set<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        Map<Long, StockLevel> levels = new LinkedHashMap<>();
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        for (int from = 0; from < ids.size(); from += QUERY_CHUNK_SIZE) {
+            for (ProductRepository.StockLevel row : productRepository.findStockLevels(ids.subList(from, Math.min(from + QUERY_CHUNK_SIZE, ids.size())))) {
+                Integer available = ledger != null ? ledger.available(row.getId()) : null;
+                int stock = available != null ? available : row.getStock();
+                levels.put(row.getId(), new StockLevel(row.getId(), stock, Boolean.TRUE.equals(row.getActive())));
+            }
+        }
+        for (Long productId : ids) {
+            levels.putIfAbsent(productId, new StockLevel(productId, 0, false));
+        }
+        return levels;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        for (Long productId : subscriber.productIds) {
+            subscribersByProduct.computeIfPresent(productId, (id, productSubscribers) -> {
+                productSubscribers.remove(subscriber);
+                return productSubscribers.isEmpty() ? null : productSubscribers;
+            });
+        }
+    }
+
+    private Set<Subscriber> subscribers() {
+        Set<Subscriber> all = new HashSet<>();
+        subscribersByProduct.values().forEach(all::addAll);
+        return all;
+    }
+
+    // lastSent yalnızca fan-out thread'inde kullanılır; boyutu izlenen ürün sayısıyla sınırlıdır
+    private final class Subscriber {
+        private final Set<Long> productIds;
+        private final SseConnection connection;
+        private final Map<Long, StockLevel> lastSent = new HashMap<>();
+
+        private Subscriber(Set<Long> productIds, SseEmitter emitter) {
+            this.productIds = productIds;
+            this.connection = new SseConnection(emitter, subscriberQueueSize, senders, overflows, () -> unsubscribe(this));
+        }
+
+        // Bu aboneye en son gönderilenden farklı olan değerleri tek olayda gönderir
+        // (pencere içinde değişip eski değerine dönen ürünler gönderilmez)
+        void sendChanged(List<StockLevel> levels) {
+            List<StockLevel> changed = levels.stream()
+                    .filter(level -> !level.equals(lastSent.put(level.productId(), level)))
+                    .toList();
+            if (!changed.isEmpty() && send(SseEmitter.event().name(STOCK_EVENT).data(changed, MediaType.APPLICATION_JSON))) {
+                sent.increment();
+            }
+        }
+
+        boolean send(SseEmitter.SseEventBuilder event) {
+            return connection.send(event);
+        }
+    }
+}
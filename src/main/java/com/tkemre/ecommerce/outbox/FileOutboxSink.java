@@ -0,0 +1,89 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tkemre.ecommerce.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Olayları NDJSON dosyasına ekler (outbox.sink=file). Her batch tek yazma ile eklenir ve batch silinmeden önce
+// diske zorlanır; böylece çökme sonrası en fazla son batch tekrar yazılır, olay kaybolmaz.
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    public FileOutboxSink(@Value("${outbox.file.path:data/outbox/order-events.ndjson}") Path path,
+                          ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (OutboxEvent event : events) {
+            lines.append(toJson(event)).append('\n');
+        }
+        try {
+            FileChannel out = channel();
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Outbox events could not be written to " + path, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Dosya ilk teslimatta açılır
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private String toJson(OutboxEvent event) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode()
+                    .put("id", event.getId())
+                    .put("orderId", event.getOrderId())
+                    .put("type", event.getType().name())
+                    .put("createdAt", event.getCreatedAt().toString());
+            node.set("payload", objectMapper.readTree(event.getPayload()));
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event " + event.getId() + " has an invalid payload", e);
+        }
+    }
+}
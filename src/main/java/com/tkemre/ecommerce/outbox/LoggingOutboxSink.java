@@ -0,0 +1,24 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.tkemre.ecommerce.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Varsayılan sink: olayları log'a yazar (yerel geliştirme ve entegrasyon öncesi için)
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("Order event {} {} for order {}: {}", event.getId(), event.getType(), event.getOrderId(), event.getPayload());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.model.OutboxEvent;
+import com.tkemre.ecommerce.repository.OutboxEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Sipariş olaylarını outbox tablosuna yazar (outbox.enabled=true ile açılır). Çağıranın işlemine katılır;
+// sipariş değişikliği geri alınırsa olay da geri alınır, commit edilirse dağıtıcı en az bir kez iletir.
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OrderEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(OutboxEvent.Type type, Order order) {
+        appendAll(type, List.of(order), order.getStatus());
+    }
+
+    // Toplu durum değişiklikleri için: sipariş entity'leri set tabanlı UPDATE'ten önce yüklenmiş olabilir,
+    // bu yüzden yeni durum ayrıca verilir. Olaylar tek batch INSERT ile yazılır.
+    public void appendAll(OutboxEvent.Type type, Collection<Order> orders, OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            events.add(OutboxEvent.builder()
+                    .orderId(order.getId())
+                    .type(type)
+                    .payload(payload(type, order, status))
+                    .createdAt(now)
+                    .build());
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    // Kalemler yalnızca CREATED olayında yer alır; diğer olaylar yalnızca durumu taşır
+    private String payload(OutboxEvent.Type type, Order order, OrderStatus status) {
+        List<ItemPayload> items = type == OutboxEvent.Type.CREATED
+                ? order.getOrderItems().stream()
+                        .map(item -> new ItemPayload(item.getProduct().getId(), item.getQuantity(), item.getPriceAtOrder()))
+                        .toList()
+                : null;
+        try {
+            return objectMapper.writeValueAsString(new OrderPayload(order.getId(), order.getUser().getId(), status,
+                    order.getTotalPrice(), order.getOrderDate(), items));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order event could not be serialized", e);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record OrderPayload(Long orderId, Long userId, OrderStatus status, BigDecimal totalPrice,
+                                LocalDateTime orderDate, List<ItemPayload> items) {}
+
+    private record ItemPayload(Long productId, Integer quantity, BigDecimal price) {}
+}
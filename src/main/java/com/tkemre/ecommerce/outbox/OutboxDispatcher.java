@@ -0,0 +1,78 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.tkemre.ecommerce.model.OutboxEvent;
+import com.tkemre.ecommerce.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Outbox tablosunu batch'ler halinde boşaltır (outbox.enabled=true ile açılır). Tek dağıtıcı olayları id sırasıyla
+// okur, tüm sink'lere iletir ve ancak ondan sonra siler (en az bir kez teslimat). Bir sink hata verirse batch
+// silinmez ve sonraki turda baştan denenir; bu sırada daha yeni olaylar iletilmez, böylece sipariş başına sıra korunur.
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Timer lag;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxSink> sinks,
+                            @Value("${outbox.batch-size:500}") int batchSize,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.dispatched = meterRegistry.counter("outbox.events.dispatched");
+        this.failures = meterRegistry.counter("outbox.dispatch.failures");
+        // Olayın yazılması ile sink'lere iletilmesi arasındaki süre
+        this.lag = meterRegistry.timer("outbox.dispatch.lag");
+    }
+
+    // Bekleyen tüm olayları iletir; iletilen olay sayısını döner
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval:PT0.5S}")
+    public synchronized int dispatch() {
+        int total = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                for (OutboxSink sink : sinks) {
+                    sink.deliver(batch);
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Outbox batch starting at event {} could not be delivered; it will be retried",
+                        batch.get(0).getId(), e);
+                break;
+            }
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), now)));
+            dispatched.increment(batch.size());
+            total += batch.size();
+        } while (batch.size() == batchSize);
+        return total;
+    }
+}
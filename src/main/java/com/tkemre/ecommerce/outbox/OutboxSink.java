@@ -0,0 +1,14 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.tkemre.ecommerce.model.OutboxEvent;
+
+import java.util.List;
+
+// Outbox olaylarının iletildiği hedef. Olaylar id sırasıyla gelir; aynı siparişin olayları yazıldıkları sırayla iletilir.
+// Teslimat en az bir kezdir: bir batch'te hata olursa (herhangi bir sink'te) batch'in tamamı sonraki turda yeniden
+// iletilir, bu yüzden tüketiciler olay id'sine göre tekrarları ayıklamalıdır.
+public interface OutboxSink {
+
+    // Hata durumunda istisna fırlatmalıdır; sessizce yutulan hata olayın kaybolması demektir
+    void deliver(List<OutboxEvent> events);
+}
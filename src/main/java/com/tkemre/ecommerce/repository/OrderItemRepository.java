@@ -1,13 +1,17 @@
 package com.tkemre.ecommerce.repository;
 
-import com.tkemre.ecommerce.model.Order; // Kendi modeliniz
-import com.tkemre.ecommerce.model.User; // Kendi modeliniz
-import org.springframework.data.domain.Page; // Sayfalama için
-import org.springframework.data.domain.Pageable; // Sayfalama için
+import com.tkemre.ecommerce.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import com.tkemre.ecommerce.model.OrderItem;
+import java.util.stream.Stream;
 
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -15,5 +19,31 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findAllByOrderId(Long orderId);
 
+    // Bir sipariş sayfasındaki tüm kalemleri ürünleriyle birlikte tek sorguda getirir (N+1 sorgu yerine)
+    @Query("select oi from OrderItem oi join fetch oi.product where oi.order.id in :orderIds")
+    List<OrderItem> findAllWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Ürün başına toplam satış adedi (otomatik tamamlama sıralaması için)
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi group by oi.product.id")
+    List<ProductSales> sumQuantityByProduct();
+
+    // Verilen siparişlerin kalemlerini ürün bazında toplar (stok iadesi için; kalemler ve ürünler yüklenmez)
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi "
+            + "where oi.order.id in :orderIds group by oi.product.id")
+    List<ProductSales> sumQuantityByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    // Dışa aktarım için ileri yönlü imleç: kalemler siparişleri, kullanıcıları ve ürünleriyle aynı satırda gelir,
+    // sipariş id sırasıyla (aynı siparişin kalemleri ardışık). Sürücü satırları fetch-size kadar parça parça getirir.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select oi from OrderItem oi join fetch oi.order o join fetch o.user join fetch oi.product "
+            + "where o.orderDate >= :from and o.orderDate < :to order by o.id, oi.id")
+    Stream<OrderItem> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-}
\ No newline at end of file
+    interface ProductSales {
+        Long getProductId();
+        Long getQuantity();
+    }
+}
@@ -1,21 +1,65 @@
 package com.tkemre.ecommerce.repository;
 
 import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.OrderStatus;
 import com.tkemre.ecommerce.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Belirli bir kullanıcıya ait tüm siparişleri getirme (sayfalama ile)
+    // Kullanıcı ve teslimat adresi aynı sorguda join ile gelir; kalemler sayfa başına tek sorguda ayrıca yüklenir
+    @EntityGraph(attributePaths = {"user", "shippingAddress"})
     Page<Order> findAllByUser(User user, Pageable pageable);
 
+    // Keyset (seek) sayfalama: OFFSET ve COUNT yerine (user_id, sort_key, id) indeksinde son görülen satırdan devam eder
+    @EntityGraph(attributePaths = {"user", "shippingAddress"})
+    Window<Order> findByUser(User user, ScrollPosition position, Sort sort, Limit limit);
+
     // Belirli bir kullanıcıya ait ve belirli bir sipariş ID'sine sahip siparişi getirme
     // Kullanıcının sadece kendi siparişlerini görmesini sağlamak için önemli
+    // Detay görünümü için kalemler ve ürünleri de aynı sorguda getirilir
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "orderItems", "orderItems.product"})
     Optional<Order> findByIdAndUser(Long id, User user);
 
+    // Tekil iptal için siparişi işlem sonuna kadar kilitler (kalemler yüklenmez); aynı anda çalışan süre aşımı
+    // taraması veya toplu iptal bitene kadar bekler ve güncel durumu görür
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findForUpdateByIdAndUser(Long id, User user);
+
+    // Verilen durumda ve tarihten eski siparişlerin id'leri, en eskiden başlayarak (kilitlenmez; çağıran
+    // findByIdInOrderByIdAsc ile id sırasıyla kilitler). (status, order_date) indeksinde yalnızca eşik öncesi aralık okunur.
+    @Query("select o.id from Order o where o.status = :status and o.orderDate < :cutoff order by o.orderDate asc")
+    List<Long> findIdsByStatusAndOrderDateBefore(@Param("status") OrderStatus status,
+                                                 @Param("cutoff") LocalDateTime cutoff,
+                                                 Limit limit);
+
+    // Toplu iptal ve süre aşımı için siparişleri id sırasıyla kilitler (kalemler yüklenmez); iki yol da aynı sırayla
+    // kilitlediği için örtüşen batch'ler birbirini kilitlenmeye (deadlock) sokmaz
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Order> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Birçok siparişin durumunu tek UPDATE ile değiştirir; toplu güncelleme @Version'ı atlar, sürüm elle artırılır
+    @Modifying
+    @Query("update Order o set o.status = :status, o.version = o.version + 1 where o.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
 
 }
\ No newline at end of file
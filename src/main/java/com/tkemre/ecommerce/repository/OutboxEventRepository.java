@@ -0,0 +1,13 @@
+package com.tkemre.ecommerce.repository;
+
+import com.tkemre.ecommerce.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // En eski bekleyen olaylar (birincil anahtar sırasıyla; ek indeks gerekmez)
+    List<OutboxEvent> findAllByOrderByIdAsc(Limit limit);
+}
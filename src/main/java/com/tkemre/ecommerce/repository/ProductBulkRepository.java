@@ -0,0 +1,13 @@
+package com.tkemre.ecommerce.repository;
+
+import com.tkemre.ecommerce.model.Product;
+
+import java.util.List;
+
+// Toplu ürün yükleme için JDBC işlemleri (ProductRepository'ye fragment olarak eklenir)
+public interface ProductBulkRepository {
+
+    // Ürünleri normalized_name'e göre tek bir JDBC batch'inde MERGE eder: varsa günceller, yoksa ekler.
+    // Yeni satırların id'leri products_seq'ten Hibernate'in pooled bloklarıyla çakışmayacak şekilde alınır.
+    void upsertByNormalizedName(List<Product> products);
+}
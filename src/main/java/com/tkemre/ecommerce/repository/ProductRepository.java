@@ -1,21 +1,62 @@
 package com.tkemre.ecommerce.repository;
 
 import com.tkemre.ecommerce.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductStockRepository, ProductBulkRepository {
 
     Optional<Product> findByName(String name);
 
     Page<Product> findAllByCategory(String category, Pageable pageable);
 
-    List<Product> findByNameContainingIgnoreCase(String name);
+    // normalized_name üzerindeki unique indeksi kullanır (Product.normalizeName ile normalize edilmiş değer beklenir)
+    boolean existsByNormalizedName(String normalizedName);
+
+    boolean existsByNormalizedNameAndIdNot(String normalizedName, Long id);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Product p where p.normalizedName in :normalizedNames")
+    List<Long> findIdsByNormalizedNameIn(@Param("normalizedNames") Collection<String> normalizedNames);
+
+    // Stok akışı için yalnızca stok ve aktiflik sütunları okunur
+    @Query("select p.id as id, p.stock as stock, p.active as active from Product p where p.id in :ids")
+    List<StockLevel> findStockLevels(@Param("ids") Collection<Long> ids);
 
     Page<Product> findAllByActiveTrue(Pageable pageable);
 
     Page<Product> findAllByCategoryAndActiveTrue(String category, Pageable pageable);
-}
\ No newline at end of file
+
+    // Keyset (seek) sayfalama; sıralama alanları KeysetCursor.PRODUCT_SORT_FIELDS ile sınırlıdır
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Bellek içi indekslerin yeniden kurulumu için id sırasıyla keyset sayfaları
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Arama indeksi kapalıyken kullanılan basit ad araması (normalize edilmiş ad üzerinde)
+    Page<Product> findAllByActiveTrueAndNormalizedNameContaining(String normalizedName, Pageable pageable);
+
+    // Öneri indeksi kapalıyken kullanılan önek araması (normalized_name unique indeksi üzerinde aralık taraması)
+    List<Product> findByActiveTrueAndNormalizedNameStartingWithOrderByNormalizedNameAsc(String prefix, Limit limit);
+
+    interface StockLevel {
+        Long getId();
+        Integer getStock();
+        Boolean getActive();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tkemre.ecommerce.repository;
+
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
+import com.tkemre.ecommerce.model.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Faset indeksi kapalıyken ProductFacetFilter'ı tek bir veritabanı sorgusuna çevirir (faset sayıları hesaplanmaz).
+// Anlam indeksle aynıdır: aynı fasetteki değerler OR, fasetler arası AND; null/boş faset filtrelemez.
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFacetFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.categories() != null && !filter.categories().isEmpty()) {
+                predicates.add(root.get("category").in(filter.categories()));
+            }
+            if (filter.priceBands() != null && !filter.priceBands().isEmpty()) {
+                Path<BigDecimal> price = root.get("price");
+                List<Predicate> bands = new ArrayList<>();
+                filter.priceBands().forEach(label -> {
+                    Predicate band = priceBand(cb, price, label);
+                    if (band != null) {
+                        bands.add(band);
+                    }
+                });
+                predicates.add(cb.or(bands.toArray(Predicate[]::new))); // Tanınmayan aralıklar hiçbir ürünle eşleşmez
+            }
+            if (filter.inStock() != null) {
+                Path<Integer> stock = root.get("stock");
+                predicates.add(filter.inStock() ? cb.gt(stock, 0) : cb.or(cb.isNull(stock), cb.le(stock, 0)));
+            }
+            if (filter.active() != null) {
+                Path<Boolean> active = root.get("active");
+                predicates.add(filter.active() ? cb.isTrue(active) : cb.or(cb.isNull(active), cb.isFalse(active)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // "50-100" -> 50 <= fiyat < 100, "1000+" -> fiyat >= 1000; biçim hatalıysa null
+    private static Predicate priceBand(CriteriaBuilder cb, Path<BigDecimal> price, String label) {
+        try {
+            if (label.endsWith("+")) {
+                return cb.greaterThanOrEqualTo(price, new BigDecimal(label.substring(0, label.length() - 1)));
+            }
+            int separator = label.indexOf('-');
+            if (separator <= 0) {
+                return null;
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(price, new BigDecimal(label.substring(0, separator))),
+                    cb.lessThan(price, new BigDecimal(label.substring(separator + 1))));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
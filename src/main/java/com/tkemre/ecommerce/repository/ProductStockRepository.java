@@ -0,0 +1,20 @@
+package com.tkemre.ecommerce.repository;
+
+import java.util.SortedMap;
+
+// Stok miktarını okumadan, tek bir koşullu UPDATE ile değiştiren işlemler (ProductRepository'ye fragment olarak eklenir)
+public interface ProductStockRepository {
+
+    // Her ürün için "stock = stock - ? WHERE id = ? AND stock >= ?" çalıştırır; tüm satırlar tek JDBC batch'inde gider.
+    // Dönen dizinin i. elemanı, map'in i. girdisinin uygulanıp uygulanmadığını belirtir (stok yetersizse false).
+    boolean[] decrementStock(SortedMap<Long, Integer> quantitiesByProductId);
+
+    // İptal/iade gibi durumlarda stokları geri ekler; ürün bulunamazsa ilgili eleman false döner.
+    boolean[] incrementStock(SortedMap<Long, Integer> quantitiesByProductId);
+
+    // Depo senkronizasyonu: stoğu verilen değere eşitler ("stock = ? WHERE id = ?").
+    boolean[] setStock(SortedMap<Long, Integer> stockByProductId);
+
+    // Depo senkronizasyonu: stoğa pozitif/negatif fark ekler; sonuç negatif olacaksa satır güncellenmez ve false döner.
+    boolean[] adjustStock(SortedMap<Long, Integer> deltasByProductId);
+}
@@ -0,0 +1,73 @@
+package com.tkemre.ecommerce.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// ProductStockRepository fragment'ının JDBC implementasyonu.
+// Satırlar map'in sırasıyla (artan ürün id) güncellenir; böylece eşzamanlı işlemler satır kilitlerini hep aynı sırada alır.
+// JDBC güncellemeleri Hibernate'in @Version artırımını atladığından satır sürümü her SQL'de elle artırılır.
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ?";
+    private static final String SET_SQL =
+            "UPDATE products SET stock = ?, version = version + 1 WHERE id = ?";
+    private static final String ADJUST_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean[] decrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Object[]> args = new ArrayList<>(quantitiesByProductId.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        return toResults(jdbcTemplate.batchUpdate(DECREMENT_SQL, args));
+    }
+
+    @Override
+    public boolean[] incrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Object[]> args = new ArrayList<>(quantitiesByProductId.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        return toResults(jdbcTemplate.batchUpdate(INCREMENT_SQL, args));
+    }
+
+    @Override
+    public boolean[] setStock(SortedMap<Long, Integer> stockByProductId) {
+        List<Object[]> args = new ArrayList<>(stockByProductId.size());
+        for (Map.Entry<Long, Integer> entry : stockByProductId.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        return toResults(jdbcTemplate.batchUpdate(SET_SQL, args));
+    }
+
+    @Override
+    public boolean[] adjustStock(SortedMap<Long, Integer> deltasByProductId) {
+        List<Object[]> args = new ArrayList<>(deltasByProductId.size());
+        for (Map.Entry<Long, Integer> entry : deltasByProductId.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        return toResults(jdbcTemplate.batchUpdate(ADJUST_SQL, args));
+    }
+
+    private boolean[] toResults(int[] updateCounts) {
+        boolean[] results = new boolean[updateCounts.length];
+        for (int i = 0; i < updateCounts.length; i++) {
+            results[i] = updateCounts[i] > 0;
+        }
+        return results;
+    }
+}
@@ -1,6 +1,10 @@
 package com.tkemre.ecommerce.repository;
 
 import com.tkemre.ecommerce.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
@@ -9,4 +13,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+    // Keyset (seek) sayfalama; sıralama alanları KeysetCursor.USER_SORT_FIELDS ile sınırlıdır
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+}
@@ -0,0 +1,138 @@
+package com.tkemre.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tkemre.ecommerce.exception.InvalidCursorException;
+import com.tkemre.ecommerce.exception.InvalidSortException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Keyset (seek) sayfalama için opak cursor: sıralama alanı + son görülen satırın (sort_key, id) değerleri.
+// Token, istemci için anlamsız bir base64url metnidir; sıralama cursor ile birlikte taşınır.
+public record KeysetCursor(Sort sort, ScrollPosition position) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Sıralamaya izin verilen (indeksli) alanlar ve cursor'dan geri çözülürken kullanılacak tipleri
+    public static final Map<String, Class<?>> ORDER_SORT_FIELDS = Map.of(
+            "orderDate", LocalDateTime.class,
+            "id", Long.class);
+    public static final Map<String, Class<?>> PRODUCT_SORT_FIELDS = Map.of(
+            "id", Long.class,
+            "name", String.class,
+            "price", BigDecimal.class);
+    public static final Map<String, Class<?>> USER_SORT_FIELDS = Map.of(
+            "id", Long.class,
+            "username", String.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> KEYS_TYPE = new TypeReference<>() {};
+    private static final String SORT_KEY = "_sort";
+    private static final String ID_KEY = "id"; // Eşit sıralama değerlerinde sırayı belirleyen tiebreaker
+
+    // "?sort=name,desc" parametresini whitelist'e göre doğrulayıp Sort'a çevirir
+    public static Sort parseSort(String[] sort, Map<String, Class<?>> allowedFields) {
+        if (sort == null || sort.length == 0 || !allowedFields.containsKey(sort[0])) {
+            throw new InvalidSortException("sort field must be one of " + allowedFields.keySet());
+        }
+        Sort sorting = Sort.by(sort[0]);
+        if (sort.length > 1 && sort[1].equalsIgnoreCase("desc")) {
+            return sorting.descending();
+        }
+        return sorting.ascending();
+    }
+
+    // İlk sayfa için cursor boş gelir; sonraki sayfalarda sıralama cursor'ın içinden okunur
+    public static KeysetCursor of(String token, String[] sort, Map<String, Class<?>> allowedFields) {
+        if (token == null || token.isBlank()) {
+            return new KeysetCursor(parseSort(sort, allowedFields), ScrollPosition.keyset());
+        }
+
+        Map<String, String> encoded;
+        try {
+            encoded = MAPPER.readValue(Base64.getUrlDecoder().decode(token), KEYS_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidCursorException("cursor cannot be decoded");
+        }
+
+        String sortSpec = encoded.remove(SORT_KEY);
+        if (sortSpec == null) {
+            throw new InvalidCursorException("cursor does not contain a sort");
+        }
+        Sort cursorSort;
+        try {
+            cursorSort = parseSort(sortSpec.split(","), allowedFields);
+        } catch (InvalidSortException e) {
+            throw new InvalidCursorException("cursor contains an unknown sort");
+        }
+
+        // Seek sorgusu sıralama alanlarının ve id'nin tamamını bekler; eksik ya da fazla anahtar sorguyu bozar
+        Set<String> expectedKeys = new HashSet<>();
+        cursorSort.forEach(order -> expectedKeys.add(order.getProperty()));
+        expectedKeys.add(ID_KEY);
+        if (!encoded.keySet().equals(expectedKeys)) {
+            throw new InvalidCursorException("cursor keys do not match its sort");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : encoded.entrySet()) {
+            keys.put(entry.getKey(), convert(entry.getValue(), allowedFields.get(entry.getKey())));
+        }
+        return new KeysetCursor(cursorSort, ScrollPosition.forward(keys));
+    }
+
+    // Pencerenin son satırından sonraki sayfanın token'ını üretir; devamı yoksa null döner
+    public String next(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+
+        Map<String, String> encoded = new LinkedHashMap<>();
+        Sort.Order order = sort.iterator().next();
+        encoded.put(SORT_KEY, order.getProperty() + "," + order.getDirection().name().toLowerCase());
+        last.getKeys().forEach((key, value) -> encoded.put(key, value == null ? null : value.toString()));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(encoded));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Sıralama sütunları NOT NULL; boş değer yalnızca elle değiştirilmiş bir cursor'dan gelebilir
+    private static Object convert(String value, Class<?> type) {
+        if (value == null) {
+            throw new InvalidCursorException("cursor value is missing");
+        }
+        try {
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            }
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("cursor value cannot be parsed");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.tkemre.ecommerce.service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface OrderExportService {
+
+    enum Format {
+        CSV, // Kalem başına bir satır; sipariş sütunları her kalemde tekrarlanır
+        NDJSON // Sipariş başına bir JSON nesnesi, kalemleri "items" dizisinde
+    }
+
+    // [from, to) aralığındaki siparişleri okundukça output'a yazar; yazılan sipariş sayısını döner
+    long exportOrders(LocalDateTime from, LocalDateTime to, Format format, OutputStream output);
+}
@@ -0,0 +1,125 @@
+package com.tkemre.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.OrderItem;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.repository.OrderItemRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Siparişleri ileri yönlü bir imleçten okuyup satır satır yazar. Bellekte yalnızca o an yazılan siparişin kalemleri
+// tutulur; persistence context her clear-interval satırda bir temizlenir. Böylece heap kullanımı dışa aktarılan
+// sipariş sayısından bağımsızdır (COUNT sorgusu ve sayfa nesneleri yoktur).
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportServiceImpl.class);
+
+    private static final String CSV_HEADER = "orderId,orderDate,status,userId,username,totalPrice,productId,productName,quantity,priceAtOrder";
+
+    private final OrderItemRepository orderItemRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int clearInterval;
+
+    public OrderExportServiceImpl(OrderItemRepository orderItemRepository,
+                                  EntityManager entityManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${order.export.clear-interval:1000}") int clearInterval) {
+        this.orderItemRepository = orderItemRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.clearInterval = clearInterval;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime from, LocalDateTime to, Format format, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long orders = 0;
+        int rowsSinceClear = 0;
+        try (Stream<OrderItem> items = orderItemRepository.streamForExport(from, to)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            ExportedOrder current = null;
+            for (OrderItem item : (Iterable<OrderItem>) items::iterator) {
+                Order order = item.getOrder();
+                if (current == null || !current.id().equals(order.getId())) {
+                    if (current != null) {
+                        write(current, format, writer);
+                        orders++;
+                        // Yalnızca sipariş sınırında temizlenir; yazılmış entity'ler context'te birikmez
+                        if (rowsSinceClear >= clearInterval) {
+                            entityManager.clear();
+                            rowsSinceClear = 0;
+                        }
+                    }
+                    current = new ExportedOrder(order.getId(), order.getOrderDate(), order.getStatus(),
+                            order.getUser().getId(), order.getUser().getUsername(), order.getTotalPrice(), new ArrayList<>());
+                }
+                current.items().add(new ExportedItem(item.getProduct().getId(), item.getProduct().getName(),
+                        item.getQuantity(), item.getPriceAtOrder()));
+                rowsSinceClear++;
+            }
+            if (current != null) {
+                write(current, format, writer);
+                orders++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Çoğunlukla istemcinin bağlantıyı kapatması; imleç try-with-resources ile kapanır
+            throw new UncheckedIOException("Order export could not be written", e);
+        }
+        log.info("Exported {} orders between {} and {} as {}", orders, from, to, format);
+        return orders;
+    }
+
+    private void write(ExportedOrder order, Format format, Writer writer) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(order));
+            writer.write('\n');
+            return;
+        }
+        for (ExportedItem item : order.items()) {
+            writer.write(order.id() + "," + order.orderDate() + "," + order.status() + "," + order.userId() + ","
+                    + csv(order.username()) + "," + order.totalPrice().toPlainString() + ","
+                    + item.productId() + "," + csv(item.productName()) + "," + item.quantity() + ","
+                    + item.priceAtOrder().toPlainString());
+            writer.write('\n');
+        }
+    }
+
+    // RFC 4180: virgül, tırnak veya satır sonu içeren alanlar tırnaklanır, tırnaklar ikilenir
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record ExportedOrder(Long id, LocalDateTime orderDate, OrderStatus status, Long userId, String username,
+                                 BigDecimal totalPrice, List<ExportedItem> items) {}
+
+    private record ExportedItem(Long productId, String productName, Integer quantity, BigDecimal priceAtOrder) {}
+}
@@ -1,17 +1,32 @@
 package com.tkemre.ecommerce.service;
 
+import com.tkemre.ecommerce.dto.BulkCancelOrdersResult;
 import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.OrderDto;
 import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 // Sipariş işlemleri için servis arayüzü
 public interface OrderService {
     OrderDto createOrder(String username, CreateOrderRequest request);
+    OrderDto createOrder(String username, CreateOrderRequest request, String idempotencyKey); // Anahtar kaydı siparişle aynı işlemde yazılır
+    OrderDto createOrderInBatch(String username, CreateOrderRequest request, String idempotencyKey); // Grup commit: çağıranın işlemi içinde, kendi savepoint'iyle
+    Optional<OrderDto> findOrderByIdempotencyKey(String username, String idempotencyKey, CreateOrderRequest request);
     OrderDto getOrderById(Long orderId, String username);
     Page<OrderDto> getUserOrders(String username, Pageable pageable);
+    CursorPage<OrderDto> scrollUserOrders(String username, KeysetCursor cursor, int size); // Keyset (cursor) sayfalama
     OrderDto updateOrderStatus(Long orderId, UpdateOrderStatusRequest request);
     void cancelOrder(Long orderId, String username);
+    BulkCancelOrdersResult cancelOrders(List<Long> orderIds); // ADMIN: toplu iptal, sipariş bazında sonuç raporu
     void deleteOrder(Long orderId);
+    ExpiredOrders expirePendingOrders(LocalDateTime cutoff, int batchSize); // Süresi dolan PENDING siparişleri iptal eder, stoğu iade eder
+
+    // Bir süre aşımı batch'inin sonucu (oldestOrderDate: batch boşsa null)
+    record ExpiredOrders(int orders, long releasedUnits, LocalDateTime oldestOrderDate) {}
 }
@@ -2,52 +2,119 @@ package com.tkemre.ecommerce.service;
 
 import com.tkemre.ecommerce.exception.OutOfStockException;
 import com.tkemre.ecommerce.dto.AddressDto;
+import com.tkemre.ecommerce.dto.BulkCancelOrdersResult;
 import com.tkemre.ecommerce.dto.CreateOrderRequest;
 import com.tkemre.ecommerce.dto.CreateOrderItemRequest; // Yeni import
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.OrderDto;
 import com.tkemre.ecommerce.dto.OrderItemDto;
 import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
+import com.tkemre.ecommerce.event.OrderDeletedEvent;
+import com.tkemre.ecommerce.event.OrderStatusChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
 import com.tkemre.ecommerce.exception.AddressNotFoundException;
+import com.tkemre.ecommerce.exception.IdempotencyKeyReuseException;
 import com.tkemre.ecommerce.exception.OrderNotFoundException;
 import com.tkemre.ecommerce.exception.ProductNotFoundException;
 import com.tkemre.ecommerce.exception.UserNotFoundException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
 import com.tkemre.ecommerce.model.*;
+import com.tkemre.ecommerce.outbox.OrderEventOutbox;
 import com.tkemre.ecommerce.repository.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int BULK_CHUNK_SIZE = 1000; // Toplu işlemlerde tek sorgudaki en fazla id sayısı
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final AddressRepository addressRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<InventoryLedger> inventoryLedger;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectProvider<OrderEventOutbox> orderEventOutbox; // Opsiyonel (outbox.enabled)
 
     public OrderServiceImpl(OrderRepository orderRepository,
                             OrderItemRepository orderItemRepository,
                             UserRepository userRepository,
                             ProductRepository productRepository,
-                            AddressRepository addressRepository) {
+                            AddressRepository addressRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectProvider<InventoryLedger> inventoryLedger,
+                            IdempotencyRecordRepository idempotencyRecordRepository,
+                            ObjectProvider<OrderEventOutbox> orderEventOutbox) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
         this.addressRepository = addressRepository;
+        this.eventPublisher = eventPublisher;
+        this.inventoryLedger = inventoryLedger;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.orderEventOutbox = orderEventOutbox;
     }
 
     @Override
     @Transactional
     public OrderDto createOrder(String username, CreateOrderRequest request) {
+        return placeOrder(username, request, null);
+    }
+
+    @Override
+    @Transactional
+    public OrderDto createOrder(String username, CreateOrderRequest request, String idempotencyKey) {
+        return placeOrder(username, request, idempotencyKey);
+    }
+
+    // Grup commit (checkout.group-commit.enabled) için: çağıranın açtığı batch işlemi içinde çalışır.
+    // Bilinçli olarak @Transactional değildir; işleme katılan bir metodun hatası tüm batch'i rollback-only yapardı.
+    // Savepoint'i, siparişin SQL'ini savepoint kapanmadan çalıştıran flush'ı ve oturum temizliğini çağıran yönetir.
+    @Override
+    public OrderDto createOrderInBatch(String username, CreateOrderRequest request, String idempotencyKey) {
+        return placeOrder(username, request, idempotencyKey);
+    }
+
+    // Anahtarla daha önce oluşturulmuş siparişi döner; anahtar farklı bir istekle kullanıldıysa 422
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderDto> findOrderByIdempotencyKey(String username, String idempotencyKey, CreateOrderRequest request) {
+        return idempotencyRecordRepository.findByUsernameAndIdempotencyKey(username, idempotencyKey).map(record -> {
+            if (!record.getRequestHash().equals(IdempotencyRecord.fingerprint(request))) {
+                throw new IdempotencyKeyReuseException(idempotencyKey);
+            }
+            return getOrderById(record.getOrderId(), username);
+        });
+    }
+
+    private OrderDto placeOrder(String username, CreateOrderRequest request, String idempotencyKey) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
 
@@ -69,33 +136,53 @@ public class OrderServiceImpl implements OrderService {
                 .build();
 
 
-        BigDecimal totalOrderPrice = BigDecimal.ZERO;
-        Set<OrderItem> orderItems = new HashSet<>();
-
+        // Aynı ürün birden fazla satırda gelebilir; miktarları ürün bazında, artan id sırasıyla topla
+        SortedMap<Long, Integer> requestedQuantities = new TreeMap<>();
         for (CreateOrderItemRequest itemRequest : request.items()) {
-            Product product = productRepository.findById(itemRequest.productId())
-                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + itemRequest.productId()));
-            Integer quantity = itemRequest.quantity();
+            requestedQuantities.merge(itemRequest.productId(), itemRequest.quantity(), Integer::sum);
+        }
 
-            // Stok kontrolü yap
-            if (product.getStock() < quantity) {
-                throw new OutOfStockException(product.getName(), quantity, product.getStock());
+        // Tüm ürünleri (fiyat ve ad için) tek sorguda yükle
+        Map<Long, Product> products = productRepository.findAllById(requestedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : requestedQuantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ProductNotFoundException("Product not found with id: " + productId);
             }
+        }
 
+        // Stokları koşullu UPDATE'lerle düş; yetersiz stok varsa işlem geri alınır ve önceki satırlar da geri döner.
+        // Stok defteri açıksa ayırma bellekte yapılır, veritabanına arka planda yazılır.
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        boolean[] reserved = ledger != null
+                ? ledger.reserveForTransaction(requestedQuantities)
+                : productRepository.decrementStock(requestedQuantities);
+        int line = 0;
+        for (Map.Entry<Long, Integer> entry : requestedQuantities.entrySet()) {
+            if (!reserved[line++]) {
+                Product product = products.get(entry.getKey());
+                Integer available = ledger != null ? ledger.available(entry.getKey()) : product.getStock();
+                throw new OutOfStockException(product.getName(), entry.getValue(), available == null ? 0 : available);
+            }
+        }
+        // Stok değişikliği commit sonrası cache vb. yapılara bildirilir
+        eventPublisher.publishEvent(new ProductChangedEvent(requestedQuantities.keySet(), ChangeType.STOCK_CHANGED));
+
+        BigDecimal totalOrderPrice = BigDecimal.ZERO;
+        Set<OrderItem> orderItems = new HashSet<>();
+
+        for (CreateOrderItemRequest itemRequest : request.items()) {
+            Product product = products.get(itemRequest.productId());
 
             // OrderItem oluştur
             OrderItem orderItem = OrderItem.builder()
                     .order(order) // Sipariş objesini bağla
                     .product(product)
-                    .quantity(quantity)
+                    .quantity(itemRequest.quantity())
                     .priceAtOrder(product.getPrice()) // Ürünün sipariş anındaki fiyatını kaydet
                     .build();
             orderItems.add(orderItem);
             totalOrderPrice = totalOrderPrice.add(orderItem.getTotalPrice());
-
-            // Ürün stoğunu güncelle
-            product.setStock(product.getStock() - quantity);
-            productRepository.save(product); // Güncellenen ürünü kaydet
         }
 
         order.setOrderItems(orderItems);
@@ -103,6 +190,18 @@ public class OrderServiceImpl implements OrderService {
 
         Order savedOrder = orderRepository.save(order);
         orderItemRepository.saveAll(orderItems);
+        appendEvents(OutboxEvent.Type.CREATED, List.of(savedOrder), savedOrder.getStatus());
+
+        // Aynı anahtarla eşzamanlı ikinci bir kayıt (ör. başka bir sunucudan) unique kısıtına takılır ve işlem geri alınır
+        if (idempotencyKey != null) {
+            idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                    .username(username)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(IdempotencyRecord.fingerprint(request))
+                    .orderId(savedOrder.getId())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
 
 
 
@@ -110,6 +209,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDto getOrderById(Long orderId, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
@@ -122,12 +222,24 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderDto> getUserOrders(String username, Pageable pageable) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
 
-        return orderRepository.findAllByUser(user, pageable)
-                .map(this::toOrderDto);
+        Page<Order> orders = orderRepository.findAllByUser(user, pageable);
+        List<OrderDto> dtos = toOrderDtos(orders.getContent());
+        return new PageImpl<>(dtos, pageable, orders.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> scrollUserOrders(String username, KeysetCursor cursor, int size) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
+
+        Window<Order> orders = orderRepository.findByUser(user, cursor.position(), cursor.sort(), Limit.of(size));
+        return new CursorPage<>(toOrderDtos(orders.getContent()), size, cursor.next(orders), orders.hasNext());
     }
 
     @Override
@@ -142,7 +254,10 @@ public class OrderServiceImpl implements OrderService {
         }
 
         order.setStatus(request.newStatus());
-        Order updatedOrder = orderRepository.save(order);
+        // Yanıttaki sürümün (ETag) yeni satır sürümü olması için hemen flush edilir
+        Order updatedOrder = orderRepository.saveAndFlush(order);
+        appendEvents(OutboxEvent.Type.STATUS_CHANGED, List.of(updatedOrder), updatedOrder.getStatus());
+        publishStatusChanged(List.of(updatedOrder), updatedOrder.getStatus());
         return toOrderDto(updatedOrder);
     }
 
@@ -152,24 +267,60 @@ public class OrderServiceImpl implements OrderService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
 
-        // Kullanıcının sadece kendi siparişini iptal etmesini sağla
-        Order order = orderRepository.findByIdAndUser(orderId, user)
+        // Kullanıcının sadece kendi siparişini iptal etmesini sağla; satır kilitlenir, durum kontrolü güncel değeri görür
+        Order order = orderRepository.findForUpdateByIdAndUser(orderId, user)
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId + " for user " + username));
 
         // Zaten iptal edilmiş veya teslim edilmiş siparişler iptal edilemez
-        if (order.getStatus() == OrderStatus.CANCELED || order.getStatus() == OrderStatus.DELIVERED || order.getStatus() == OrderStatus.SHIPPED) {
+        if (!isCancelable(order.getStatus())) {
             throw new IllegalArgumentException("Order cannot be canceled in " + order.getStatus() + " status.");
         }
 
         order.setStatus(OrderStatus.CANCELED); // Sipariş durumunu İPTAL EDİLDİ olarak ayarla
         orderRepository.save(order);
+        appendEvents(OutboxEvent.Type.CANCELED, List.of(order), OrderStatus.CANCELED);
+        publishStatusChanged(List.of(order), OrderStatus.CANCELED);
 
-        // İptal edilen siparişin stoklarını geri ekle
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productRepository.save(product); // Güncellenen ürünü kaydet
+        // Kalemler ve ürünler yüklenmeden, miktarlar veritabanında toplanıp tek batch'te stoğa geri eklenir
+        restockOrders(List.of(order.getId()));
+    }
+
+    @Override
+    @Transactional
+    public BulkCancelOrdersResult cancelOrders(List<Long> orderIds) {
+        // Id sırası: süre aşımı taramasıyla aynı kilit sırası (bkz. expirePendingOrders)
+        List<Long> requested = new ArrayList<>(new TreeSet<>(orderIds));
+        List<Long> canceled = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> notCancelable = new ArrayList<>();
+
+        // IN listeleri sınırlı tutulur; istek boyutu ne olursa olsun sabit boyutlu sorgular çalışır
+        for (int from = 0; from < requested.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = requested.subList(from, Math.min(from + BULK_CHUNK_SIZE, requested.size()));
+            Map<Long, Order> orders = orderRepository.findByIdInOrderByIdAsc(chunk).stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            List<Order> cancelable = new ArrayList<>();
+            for (Long orderId : chunk) {
+                Order order = orders.get(orderId);
+                if (order == null) {
+                    notFound.add(orderId);
+                } else if (isCancelable(order.getStatus())) {
+                    cancelable.add(order);
+                } else {
+                    notCancelable.add(orderId);
+                }
+            }
+            if (!cancelable.isEmpty()) {
+                List<Long> cancelableIds = cancelable.stream().map(Order::getId).toList();
+                orderRepository.updateStatus(cancelableIds, OrderStatus.CANCELED);
+                appendEvents(OutboxEvent.Type.CANCELED, cancelable, OrderStatus.CANCELED);
+                publishStatusChanged(cancelable, OrderStatus.CANCELED);
+                canceled.addAll(cancelableIds);
+            }
         }
+
+        long releasedUnits = restockOrders(canceled);
+        return new BulkCancelOrdersResult(canceled, notFound, notCancelable, releasedUnits);
     }
 
     @Override
@@ -180,13 +331,104 @@ public class OrderServiceImpl implements OrderService {
 
 
 
+        appendEvents(OutboxEvent.Type.DELETED, List.of(order), order.getStatus());
         orderRepository.delete(order);
+        eventPublisher.publishEvent(new OrderDeletedEvent(orderId));
+    }
+
+    @Override
+    @Transactional
+    public ExpiredOrders expirePendingOrders(LocalDateTime cutoff, int batchSize) {
+        // Adaylar tarih sırasıyla seçilir, ama satırlar toplu iptalle aynı sırada (id) kilitlenir. Seçim ile kilit
+        // arasında ödemeye geçen (PROCESSING) veya iptal edilen sipariş kilitten sonra elenir.
+        List<Long> candidates = orderRepository.findIdsByStatusAndOrderDateBefore(OrderStatus.PENDING, cutoff, Limit.of(batchSize));
+        if (candidates.isEmpty()) {
+            return new ExpiredOrders(0, 0, null);
+        }
+        List<Order> expired = orderRepository.findByIdInOrderByIdAsc(candidates).stream()
+                .filter(order -> order.getStatus() == OrderStatus.PENDING && order.getOrderDate().isBefore(cutoff))
+                .toList();
+        if (expired.isEmpty()) {
+            return new ExpiredOrders(0, 0, null);
+        }
+
+        List<Long> orderIds = expired.stream().map(Order::getId).toList();
+        orderRepository.updateStatus(orderIds, OrderStatus.CANCELED);
+        appendEvents(OutboxEvent.Type.CANCELED, expired, OrderStatus.CANCELED);
+        publishStatusChanged(expired, OrderStatus.CANCELED);
+        long releasedUnits = restockOrders(orderIds);
+        LocalDateTime oldest = expired.stream().map(Order::getOrderDate).min(Comparator.naturalOrder()).orElseThrow();
+        return new ExpiredOrders(orderIds.size(), releasedUnits, oldest);
+    }
+
+
+    // Outbox açıksa olaylar siparişi değiştiren işlemle aynı işlemde yazılır
+    private void appendEvents(OutboxEvent.Type type, Collection<Order> orders, OrderStatus status) {
+        OrderEventOutbox outbox = orderEventOutbox.getIfAvailable();
+        if (outbox != null) {
+            outbox.appendAll(type, orders, status);
+        }
     }
 
+    // Açık SSE bağlantılarına commit sonrasında iletilir (OrderStatusHub)
+    private void publishStatusChanged(Collection<Order> orders, OrderStatus status) {
+        List<OrderStatusChangedEvent.OrderRef> refs = orders.stream()
+                .map(order -> new OrderStatusChangedEvent.OrderRef(order.getId(), order.getUser().getId()))
+                .toList();
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(status, refs));
+    }
+
+    // Sipariş durumunu elle iptal etmeye izin verilir mi (kargoya verilmiş/teslim edilmiş/zaten iptal edilmiş olamaz)
+    private static boolean isCancelable(OrderStatus status) {
+        return status != OrderStatus.CANCELED && status != OrderStatus.DELIVERED && status != OrderStatus.SHIPPED;
+    }
+
+    // İptal edilen siparişlerin kalemlerini ürün bazında veritabanında toplar ve tek batch'te stoğa geri ekler.
+    // Çağıran, siparişlerin durumunu aynı işlemde değiştirmiş olmalıdır. Geri bırakılan toplam adedi döner.
+    private long restockOrders(List<Long> orderIds) {
+        SortedMap<Long, Integer> restockQuantities = new TreeMap<>();
+        for (int from = 0; from < orderIds.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, orderIds.size()));
+            for (OrderItemRepository.ProductSales sales : orderItemRepository.sumQuantityByProductForOrders(chunk)) {
+                restockQuantities.merge(sales.getProductId(), sales.getQuantity().intValue(), Integer::sum);
+            }
+        }
+        if (restockQuantities.isEmpty()) {
+            return 0;
+        }
+
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        if (ledger != null) {
+            ledger.restockAfterCommit(restockQuantities);
+        } else {
+            productRepository.incrementStock(restockQuantities);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(restockQuantities.keySet(), ChangeType.STOCK_CHANGED));
+        return restockQuantities.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    // Bir sayfadaki siparişleri dönüştürür; tüm kalemler ürünleriyle birlikte tek sorguda yüklenir
+    private List<OrderDto> toOrderDtos(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemRepository.findAllWithProductByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        return orders.stream()
+                .map(order -> toOrderDto(order, itemsByOrderId.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
 
     // Order entity'sinden OrderDto'ya dönüşüm metodu
     private OrderDto toOrderDto(Order order) {
-        Set<OrderItemDto> itemDtos = order.getOrderItems().stream()
+        return toOrderDto(order, order.getOrderItems());
+    }
+
+    // Kalemleri önceden (toplu) yüklenmiş bir sipariş için dönüşüm; order.getOrderItems() lazy yüklemesini tetiklemez
+    private OrderDto toOrderDto(Order order, Collection<OrderItem> orderItems) {
+        Set<OrderItemDto> itemDtos = orderItems.stream()
                 .map(this::toOrderItemDto)
                 .collect(Collectors.toSet());
 
@@ -210,6 +452,7 @@ public class OrderServiceImpl implements OrderService {
                 .orderDate(order.getOrderDate())
                 .totalPrice(order.getTotalPrice())
                 .status(order.getStatus())
+                .version(order.getVersion())
                 .build();
     }
 
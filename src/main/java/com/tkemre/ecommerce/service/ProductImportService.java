@@ -0,0 +1,16 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.ProductImportResult;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    enum Format {
+        CSV, // Başlık satırı: name,category,price,stock[,active]
+        NDJSON // Satır başına bir JSON nesnesi: {"name":..,"category":..,"price":..,"stock":..,"active":..}
+    }
+
+    // Akışı satır satır okur; ürünler ada göre (büyük/küçük harf duyarsız) eklenir veya güncellenir
+    ProductImportResult importProducts(InputStream input, Format format);
+}
@@ -0,0 +1,273 @@
+package com.tkemre.ecommerce.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tkemre.ecommerce.dto.CreateProductRequest;
+import com.tkemre.ecommerce.dto.ProductImportResult;
+import com.tkemre.ecommerce.dto.ProductImportResult.RowError;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.exception.InvalidImportFileException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Büyük katalog dosyalarını akış halinde yükler. Bellekte yalnızca bir commit aralığı kadar satır tutulur;
+// böylece heap kullanımı dosya boyutundan bağımsızdır. Her commit aralığı kendi işleminde çalışır.
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "category", "price", "stock");
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int commitInterval;
+    private final int maxErrors;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    Validator validator,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper,
+                                    @Value("${product.import.batch-size:500}") int batchSize,
+                                    @Value("${product.import.commit-interval:5000}") int commitInterval,
+                                    @Value("${product.import.max-errors:100}") int maxErrors) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.commitInterval = Math.max(commitInterval, batchSize);
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ProductImportResult importProducts(InputStream input, Format format) {
+        Progress progress = new Progress();
+        List<ImportRow> chunk = new ArrayList<>(commitInterval);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvColumns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvColumns == null) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+
+                progress.processed++;
+                try {
+                    Product product = format == Format.CSV ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+                    chunk.add(new ImportRow(lineNumber, product));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() >= commitInterval) {
+                    commit(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product import stream could not be read", e);
+        }
+        if (!chunk.isEmpty()) {
+            commit(chunk, progress);
+        }
+
+        log.info("Product import finished: {} rows processed, {} imported, {} failed",
+                progress.processed, progress.imported, progress.failed);
+        return new ProductImportResult(progress.processed, progress.imported, progress.failed,
+                progress.errors, progress.errorsTruncated);
+    }
+
+    // Bir commit aralığını batch'ler halinde MERGE eder; hata olursa yalnızca bu aralık geri alınır
+    private void commit(List<ImportRow> chunk, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> changedIds = new HashSet<>();
+                for (int from = 0; from < chunk.size(); from += batchSize) {
+                    List<Product> batch = chunk.subList(from, Math.min(from + batchSize, chunk.size())).stream()
+                            .map(ImportRow::product)
+                            .toList();
+                    productRepository.upsertByNormalizedName(batch);
+                    Set<String> names = batch.stream().map(p -> Product.normalizeName(p.getName())).collect(Collectors.toSet());
+                    changedIds.addAll(productRepository.findIdsByNormalizedNameIn(names));
+                }
+                // Cache ve bellek içi indeksler commit sonrasında yalnızca bu ürünleri yeniler
+                eventPublisher.publishEvent(new ProductChangedEvent(changedIds, ChangeType.UPDATED));
+            });
+            progress.imported += chunk.size();
+        } catch (DataAccessException e) {
+            long firstLine = chunk.get(0).line();
+            long lastLine = chunk.get(chunk.size() - 1).line();
+            log.warn("Product import rolled back lines {}-{}", firstLine, lastLine, e);
+            progress.failed += chunk.size();
+            progress.addError(firstLine, "Lines " + firstLine + "-" + lastLine + " were rolled back: "
+                    + e.getMostSpecificCause().getMessage());
+        }
+        log.info("Product import progress: {} rows processed, {} imported, {} failed",
+                progress.processed, progress.imported, progress.failed);
+    }
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> header = parseCsvLine(line).stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+        if (!header.containsAll(CSV_COLUMNS)) {
+            throw new InvalidImportFileException("CSV header must contain the columns " + CSV_COLUMNS);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i), i);
+        }
+        return columns;
+    }
+
+    private Product parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() < columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+        }
+        Integer activeColumn = columns.get("active");
+        return toProduct(
+                values.get(columns.get("name")),
+                values.get(columns.get("category")),
+                values.get(columns.get("price")),
+                values.get(columns.get("stock")),
+                activeColumn == null ? null : values.get(activeColumn));
+    }
+
+    private Product parseJsonRow(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        return toProduct(text(node, "name"), text(node, "category"), text(node, "price"), text(node, "stock"),
+                text(node, "active"));
+    }
+
+    // Satırı tek ürün endpoint'iyle aynı kurallarla (CreateProductRequest) doğrular
+    private Product toProduct(String name, String category, String price, String stock, String active) {
+        CreateProductRequest request;
+        try {
+            request = new CreateProductRequest(
+                    name == null ? null : name.trim(),
+                    category == null ? null : category.trim(),
+                    price == null || price.isBlank() ? null : new BigDecimal(price.trim()),
+                    stock == null || stock.isBlank() ? null : Integer.valueOf(stock.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price and stock must be numeric");
+        }
+
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        return Product.builder()
+                .name(request.name())
+                .category(request.category())
+                .price(request.price())
+                .stock(request.stock())
+                .active(active == null || active.isBlank() || Boolean.parseBoolean(active.trim()))
+                .build();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // RFC 4180 alıntılama kurallarıyla tek satırlık CSV ayrıştırma ("a, b" ve "" kaçışları desteklenir)
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record ImportRow(long line, Product product) {}
+
+    private final class Progress {
+        long processed;
+        long imported;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+        boolean errorsTruncated;
+
+        void fail(long line, String message) {
+            failed++;
+            addError(line, message);
+        }
+
+        void addError(long line, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.tkemre.ecommerce.service;
 
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest;
+import com.tkemre.ecommerce.dto.BulkStockUpdateResult;
 import com.tkemre.ecommerce.dto.CreateProductRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
+import com.tkemre.ecommerce.dto.FacetedProductsDto;
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
 import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
 import com.tkemre.ecommerce.dto.UpdateProductRequest;
 import org.springframework.data.domain.Page; // Sayfalama için Page
 import org.springframework.data.domain.Pageable; // Sayfalama için Pageable
@@ -12,9 +18,14 @@ public interface ProductService {
     ProductDto createProduct(CreateProductRequest request);
     ProductDto getProductById(Long id);
     Page<ProductDto> getAllProducts(Pageable pageable); // Tüm ürünleri sayfalı getir
+    CursorPage<ProductDto> scrollProducts(KeysetCursor cursor, int size); // Tüm ürünleri keyset (cursor) sayfalama ile getir
     Page<ProductDto> getProductsByCategory(String category, Pageable pageable); // Kategoriye göre ürünleri sayfalı getir
+    Page<ProductDto> searchProducts(String query, Pageable pageable); // Ad ve kategoride ilgi sırasına göre tam metin arama
+    FacetedProductsDto filterProducts(ProductFacetFilter filter, Pageable pageable); // Faset filtreleri ve faset sayıları
+    List<ProductSuggestionDto> suggestProducts(String prefix, int limit); // Öneke uyan en popüler ürün adları (otomatik tamamlama)
     ProductDto updateProduct(Long id, UpdateProductRequest request);
     void deleteProduct(Long id);
     // Stok güncelleme gibi ek metotlar daha sonra eklenebilir
     ProductDto updateProductStock(Long id, Integer quantity); // Stok güncelleme metodu
+    BulkStockUpdateResult bulkUpdateStock(BulkStockUpdateRequest request); // Çok sayıda ürünün stoğunu tek işlemde günceller
 }
\ No newline at end of file
@@ -1,30 +1,87 @@
 package com.tkemre.ecommerce.service;
 
+import com.tkemre.ecommerce.cache.ProductCache;
+import com.tkemre.ecommerce.catalog.CatalogSnapshot;
+import com.tkemre.ecommerce.catalog.CatalogSnapshotService;
+import com.tkemre.ecommerce.catalog.ProductFacetIndex;
+import com.tkemre.ecommerce.catalog.ProductSearchIndex;
+import com.tkemre.ecommerce.catalog.ProductSuggestIndex;
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest;
+import com.tkemre.ecommerce.dto.BulkStockUpdateResult;
 import com.tkemre.ecommerce.dto.CreateProductRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
+import com.tkemre.ecommerce.dto.FacetedProductsDto;
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
 import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
 import com.tkemre.ecommerce.dto.UpdateProductRequest;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
 import com.tkemre.ecommerce.exception.ProductNotFoundException; // Yeni exception (henüz oluşturmadıysak)
 import com.tkemre.ecommerce.exception.ProductAlreadyExistsException; // Yeni exception (henüz oluşturmadıysak)
+import com.tkemre.ecommerce.inventory.InventoryLedger;
 import com.tkemre.ecommerce.model.Product;
 import com.tkemre.ecommerce.repository.ProductRepository;
+import com.tkemre.ecommerce.repository.ProductSpecifications;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<CatalogSnapshotService> catalogSnapshotService; // Opsiyonel (catalog.snapshot.enabled)
+    private final ObjectProvider<ProductSearchIndex> searchIndex; // Opsiyonel (catalog.search.enabled)
+    private final ObjectProvider<ProductSuggestIndex> suggestIndex; // Opsiyonel (catalog.suggest.enabled)
+    private final ObjectProvider<ProductFacetIndex> facetIndex; // Opsiyonel (catalog.facets.enabled)
+    private final ObjectProvider<InventoryLedger> inventoryLedger; // Opsiyonel (inventory.ledger.enabled)
 
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository,
+                              ProductCache productCache,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<CatalogSnapshotService> catalogSnapshotService,
+                              ObjectProvider<ProductSearchIndex> searchIndex,
+                              ObjectProvider<ProductSuggestIndex> suggestIndex,
+                              ObjectProvider<ProductFacetIndex> facetIndex,
+                              ObjectProvider<InventoryLedger> inventoryLedger) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
+        this.inventoryLedger = inventoryLedger;
     }
 
     @Override
     public ProductDto createProduct(CreateProductRequest request) {
-        // Ürün adının benzersizliğini kontrol et
-        if (productRepository.findByNameContainingIgnoreCase(request.name()).stream().anyMatch(p -> p.getName().equalsIgnoreCase(request.name()))) {
-            throw new ProductAlreadyExistsException("Product with name " + request.name() + " already exists.");
+        // Ürün adının benzersizliğini kontrol et (indeksli tek satır sorgu; asıl garanti unique kısıttır)
+        if (productRepository.existsByNormalizedName(Product.normalizeName(request.name()))) {
+            throw productAlreadyExists(request.name());
         }
 
         Product product = Product.builder()
@@ -35,37 +92,103 @@ public class ProductServiceImpl implements ProductService {
                 .active(true) // Yeni ürün varsayılan olarak aktif başlar
                 .build();
 
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = saveUniqueName(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId(), ChangeType.CREATED));
         return toProductDto(savedProduct);
     }
 
     @Override
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
-        return toProductDto(product);
+        // Önce cache'e bak; yoksa veritabanından yükle (eşzamanlı miss'ler tek sorguda birleşir)
+        return productCache.get(id, productId -> productRepository.findById(productId)
+                .map(this::toProductDto)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId)));
     }
 
     @Override
     public Page<ProductDto> getAllProducts(Pageable pageable) {
+        // Katalog snapshot'ı açıksa liste bellekten, sorgusuz döner
+        CatalogSnapshot snapshot = catalogSnapshot(pageable);
+        if (snapshot != null) {
+            return snapshot.allProducts(pageable);
+        }
         return productRepository.findAll(pageable)
                 .map(this::toProductDto); // Her Product'ı ProductDto'ya dönüştür
     }
 
+    @Override
+    public CursorPage<ProductDto> scrollProducts(KeysetCursor cursor, int size) {
+        Window<Product> products = productRepository.findAllBy(cursor.position(), cursor.sort(), Limit.of(size));
+        return new CursorPage<>(products.map(this::toProductDto).getContent(), size, cursor.next(products), products.hasNext());
+    }
+
     @Override
     public Page<ProductDto> getProductsByCategory(String category, Pageable pageable) {
+        CatalogSnapshot snapshot = catalogSnapshot(pageable);
+        if (snapshot != null) {
+            return snapshot.activeProductsByCategory(category, pageable);
+        }
         return productRepository.findAllByCategoryAndActiveTrue(category, pageable) // Sadece aktif ürünleri getir
                 .map(this::toProductDto);
     }
 
+    @Override
+    public Page<ProductDto> searchProducts(String query, Pageable pageable) {
+        ProductSearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) {
+            // İndeks kapalı: sıralama ve yazım hatası toleransı olmadan, ad içinde geçen aktif ürünler
+            return productRepository.findAllByActiveTrueAndNormalizedNameContaining(Product.normalizeName(query), pageable)
+                    .map(this::toProductDto);
+        }
+        // İndeks yalnızca sıralı id'leri döner; stok gibi güncel alanlar için sayfa tek sorguda yüklenir
+        ProductSearchIndex.SearchResult result = index.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(loadInOrder(result.productIds()), pageable, result.total());
+    }
+
+    @Override
+    public FacetedProductsDto filterProducts(ProductFacetFilter filter, Pageable pageable) {
+        ProductFacetIndex index = facetIndex.getIfAvailable();
+        if (index == null) {
+            // İndeks kapalı: eşleşmeler tek sorguyla (indeksle aynı id sırasında) okunur, faset sayıları hesaplanmaz
+            Pageable byId = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+            return new FacetedProductsDto(
+                    productRepository.findAll(ProductSpecifications.matching(filter), byId).map(this::toProductDto),
+                    Map.of());
+        }
+        // Eşleşmeler ve faset sayıları bitmap indeksinden gelir; veritabanına yalnızca sayfadaki ürünler için gidilir
+        ProductFacetIndex.FacetResult result = index.search(filter, (int) pageable.getOffset(), pageable.getPageSize());
+        return new FacetedProductsDto(
+                new PageImpl<>(loadInOrder(result.productIds()), pageable, result.total()),
+                result.facets());
+    }
+
+    @Override
+    public List<ProductSuggestionDto> suggestProducts(String prefix, int limit) {
+        ProductSuggestIndex index = suggestIndex.getIfAvailable();
+        if (index != null) {
+            return index.suggest(prefix, limit);
+        }
+        // İndeks kapalı: satış adetleri bilinmez, öneke uyan adlar alfabetik sırayla döner
+        String normalizedPrefix = Product.normalizeName(prefix);
+        if (normalizedPrefix == null || normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+        return productRepository
+                .findByActiveTrueAndNormalizedNameStartingWithOrderByNormalizedNameAsc(normalizedPrefix, Limit.of(limit))
+                .stream()
+                .map(product -> ProductSuggestionDto.builder().id(product.getId()).name(product.getName()).build())
+                .toList();
+    }
+
     @Override
     public ProductDto updateProduct(Long id, UpdateProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
 
         // Ürün adının güncellenirken başka bir ürünle çakışmamasını kontrol et
-        if (!product.getName().equalsIgnoreCase(request.name()) && productRepository.findByNameContainingIgnoreCase(request.name()).stream().anyMatch(p -> p.getName().equalsIgnoreCase(request.name()))) {
-            throw new ProductAlreadyExistsException("Product with name " + request.name() + " already exists.");
+        if (!product.getName().equalsIgnoreCase(request.name())
+                && productRepository.existsByNormalizedNameAndIdNot(Product.normalizeName(request.name()), id)) {
+            throw productAlreadyExists(request.name());
         }
 
         product.setName(request.name());
@@ -74,7 +197,8 @@ public class ProductServiceImpl implements ProductService {
         product.setStock(request.stock());
         product.setActive(request.active());
 
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct = saveUniqueName(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id, ChangeType.UPDATED));
         return toProductDto(updatedProduct);
     }
 
@@ -85,6 +209,7 @@ public class ProductServiceImpl implements ProductService {
             throw new ProductNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id, ChangeType.DELETED));
     }
 
     @Override
@@ -97,11 +222,120 @@ public class ProductServiceImpl implements ProductService {
             throw new IllegalArgumentException("Stock quantity cannot be negative.");
         }
 
+        // Stok defteri açıksa stok orada tutulur; satır defterin yazma sırasıyla çakışmasın diye yalnızca deftere yazılır
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        if (ledger != null) {
+            if (!ledger.setAvailable(new TreeMap<>(Map.of(id, quantity)))[0]) {
+                // Okuma ile deftere yazma arasında ürün silindi
+                throw new ProductNotFoundException("Product not found with id: " + id);
+            }
+            // Yanıt satırın yeni sürümünü taşısın diye değişiklik hemen yazılır; write-through STOCK_CHANGED yayınlar
+            if (ledger.flush()) {
+                return toProductDto(productRepository.findById(id)
+                        .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id)));
+            }
+            // Satır yazılamadı (sonraki flush'ta yeniden denenir): yanıt defterdeki stoğu ve satırın mevcut sürümünü taşır
+            eventPublisher.publishEvent(ProductChangedEvent.of(id, ChangeType.STOCK_CHANGED));
+            product.setStock(ledger.available(id));
+            return toProductDto(product);
+        }
         product.setStock(quantity);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id, ChangeType.STOCK_CHANGED));
         return toProductDto(updatedProduct);
     }
 
+    @Override
+    @Transactional
+    public BulkStockUpdateResult bulkUpdateStock(BulkStockUpdateRequest request) {
+        boolean absolute = request.mode() == BulkStockUpdateRequest.Mode.ABSOLUTE;
+
+        // Aynı ürün birden fazla kez gelirse: ABSOLUTE'ta son değer, DELTA'da toplam uygulanır.
+        // Id sırası, eşzamanlı checkout'larla aynı kilit sırasını sağlar.
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        List<Long> rejected = new ArrayList<>();
+        for (BulkStockUpdateRequest.Item item : request.items()) {
+            if (absolute) {
+                quantities.put(item.productId(), item.quantity());
+            } else {
+                quantities.merge(item.productId(), item.quantity(), Integer::sum);
+            }
+        }
+        if (absolute) {
+            quantities.entrySet().removeIf(entry -> {
+                if (entry.getValue() < 0) {
+                    rejected.add(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        InventoryLedger ledger = inventoryLedger.getIfAvailable();
+        boolean[] applied = ledger != null
+                ? (absolute ? ledger.setAvailable(quantities) : ledger.adjustAvailable(quantities))
+                : (absolute ? productRepository.setStock(quantities) : productRepository.adjustStock(quantities));
+
+        Set<Long> updatedIds = new HashSet<>();
+        List<Long> failedIds = new ArrayList<>();
+        int index = 0;
+        for (Long productId : quantities.keySet()) {
+            if (applied[index++]) {
+                updatedIds.add(productId);
+            } else {
+                failedIds.add(productId);
+            }
+        }
+
+        // Güncellenemeyen satırların nedeni (yok / negatif stok) tek sorguyla ayrıştırılır
+        List<Long> notFound = new ArrayList<>();
+        if (!failedIds.isEmpty()) {
+            Set<Long> existing = new HashSet<>(productRepository.findExistingIds(failedIds));
+            for (Long productId : failedIds) {
+                (existing.contains(productId) ? rejected : notFound).add(productId);
+            }
+        }
+
+        if (!updatedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(updatedIds, ChangeType.STOCK_CHANGED));
+        }
+        rejected.sort(null);
+        return new BulkStockUpdateResult(updatedIds.size(), notFound, rejected);
+    }
+
+    // Verilen sıradaki ürünleri tek sorguda yükler; indeks ile yükleme arasında silinen ürünler atlanır
+    private List<ProductDto> loadInOrder(List<Long> ids) {
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::toProductDto)
+                .toList();
+    }
+
+    // Kontrol ile kayıt arasında aynı ada sahip eşzamanlı bir ekleme olursa unique kısıt ihlali burada yakalanır
+    private Product saveUniqueName(Product product) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw productAlreadyExists(product.getName());
+        }
+    }
+
+    private ProductAlreadyExistsException productAlreadyExists(String name) {
+        return new ProductAlreadyExistsException("Product with name " + name + " already exists.");
+    }
+
+    // Snapshot motoru kapalıysa, henüz yüklenmediyse veya sıralama desteklenmiyorsa null döner
+    private CatalogSnapshot catalogSnapshot(Pageable pageable) {
+        CatalogSnapshotService service = catalogSnapshotService.getIfAvailable();
+        if (service == null || !CatalogSnapshot.supports(pageable)) {
+            return null;
+        }
+        return service.snapshot();
+    }
+
     // Product entity'sinden ProductDto'ya dönüşüm metodu
     private ProductDto toProductDto(Product product) {
         return ProductDto.builder()
@@ -111,6 +345,7 @@ public class ProductServiceImpl implements ProductService {
                 .price(product.getPrice())
                 .stock(product.getStock())
                 .active(product.getActive())
+                .version(product.getVersion())
                 .build();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.tkemre.ecommerce.service;
 
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.LoginRequest;
 import com.tkemre.ecommerce.dto.RegisterRequest;
 import com.tkemre.ecommerce.dto.UserDto;
@@ -17,4 +18,5 @@ public interface UserService {
     UserDto updateUserProfile(String username, UpdateUserRequest request); // Profil güncelleme
     AddressDto addAddress(String username, AddressRequest request); // Adres ekleme
     Page<UserDto> getAllUsers(Pageable pageable);
+    CursorPage<UserDto> scrollUsers(KeysetCursor cursor, int size); // Keyset (cursor) sayfalama
 }
\ No newline at end of file
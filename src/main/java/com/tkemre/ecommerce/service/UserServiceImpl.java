@@ -2,6 +2,7 @@ package com.tkemre.ecommerce.service;
 
 import com.tkemre.ecommerce.dto.AddressDto;
 import com.tkemre.ecommerce.dto.AddressRequest;
+import com.tkemre.ecommerce.dto.CursorPage;
 import com.tkemre.ecommerce.dto.LoginRequest;
 import com.tkemre.ecommerce.dto.RegisterRequest;
 import com.tkemre.ecommerce.dto.UpdateUserRequest;
@@ -24,8 +25,10 @@ import java.util.List;
 import java.util.Collections;
 import java.util.stream.Collectors;
 import java.util.HashSet;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -166,6 +169,11 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable)
                 .map(this::toUserProfileDto);
     }
+    @Override
+    public CursorPage<UserDto> scrollUsers(KeysetCursor cursor, int size) {
+        Window<User> users = userRepository.findAllBy(cursor.position(), cursor.sort(), Limit.of(size));
+        return new CursorPage<>(users.map(this::toUserProfileDto).getContent(), size, cursor.next(users), users.hasNext());
+    }
     private UserDto toUserProfileDto(User user) {
         List<AddressDto> addressDtos = user.getAddresses().stream()
                 .map(this::toAddressDto)
@@ -0,0 +1,47 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.cache.ResourceVersionCache;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CatalogSnapshotService service = new CatalogSnapshotService(productRepository,
+            mock(ResourceVersionCache.class), CatalogSnapshotService.RefreshPolicy.ON_WRITE);
+
+    private static Product product(long id, String name) {
+        return Product.builder().id(id).name(name).category("Electronics")
+                .price(BigDecimal.TEN).stock(5).active(true).build();
+    }
+
+    @Test
+    void reload_AppliesChangesCommittedWhileCatalogWasRead() {
+        // Ürün 1'in sayfası okunduktan sonra adı değişir ve olayı kurulum sürerken gelir
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            service.onProductChanged(ProductChangedEvent.of(1L, ChangeType.UPDATED));
+            return List.of(product(1L, "Old Name"), product(2L, "Keyboard"));
+        });
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(1L, "New Name")));
+
+        service.reload();
+
+        assertThat(service.snapshot().allProducts(PageRequest.of(0, 10)).getContent())
+                .extracting(ProductDto::name).containsExactly("New Name", "Keyboard");
+    }
+}
@@ -0,0 +1,74 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    private static ProductDto product(long id, String name, String category, String price, boolean active) {
+        return ProductDto.builder()
+                .id(id).name(name).category(category)
+                .price(new BigDecimal(price)).stock(10).active(active)
+                .build();
+    }
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+            product(1L, "Mouse", "Electronics", "25.00", true),
+            product(2L, "Keyboard", "Electronics", "40.00", true),
+            product(3L, "Monitor", "Electronics", "25.00", false),
+            product(4L, "Desk", "Furniture", "150.00", true)));
+
+    @Test
+    void allProducts_SortsByPriceWithIdTieBreak() {
+        Page<ProductDto> page = snapshot.allProducts(PageRequest.of(0, 3, Sort.by("price")));
+
+        assertThat(page.getContent()).extracting(ProductDto::id).containsExactly(1L, 3L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void allProducts_DescendingSlice() {
+        Page<ProductDto> page = snapshot.allProducts(PageRequest.of(1, 2, Sort.by("name").descending()));
+
+        // name desc: Mouse, Monitor, Keyboard, Desk -> ikinci sayfa
+        assertThat(page.getContent()).extracting(ProductDto::id).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void activeProductsByCategory_SkipsInactiveAndUnknownCategories() {
+        Page<ProductDto> electronics = snapshot.activeProductsByCategory("Electronics", PageRequest.of(0, 10));
+        Page<ProductDto> unknown = snapshot.activeProductsByCategory("Toys", PageRequest.of(0, 10));
+
+        assertThat(electronics.getContent()).extracting(ProductDto::id).containsExactly(1L, 2L);
+        assertThat(unknown.getTotalElements()).isZero();
+    }
+
+    @Test
+    void apply_ReturnsNewSnapshotAndLeavesOriginalUntouched() {
+        CatalogSnapshot updated = snapshot.apply(
+                List.of(product(3L, "Monitor", "Electronics", "25.00", true)), Set.of(4L));
+
+        assertThat(updated.size()).isEqualTo(3);
+        assertThat(updated.activeProductsByCategory("Electronics", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(3);
+        assertThat(updated.activeProductsByCategory("Furniture", PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.activeProductsByCategory("Electronics", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void supports_OnlySingleWhitelistedSort() {
+        assertThat(CatalogSnapshot.supports(PageRequest.of(0, 10))).isTrue();
+        assertThat(CatalogSnapshot.supports(PageRequest.of(0, 10, Sort.by("price")))).isTrue();
+        assertThat(CatalogSnapshot.supports(PageRequest.of(0, 10, Sort.by("stock")))).isFalse();
+        assertThat(CatalogSnapshot.supports(PageRequest.of(0, 10, Sort.by("price", "id")))).isFalse();
+    }
+}
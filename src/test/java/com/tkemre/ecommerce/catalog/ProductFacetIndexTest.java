@@ -0,0 +1,109 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductFacetIndex index = new ProductFacetIndex(productRepository, new String[]{"0", "50", "100"});
+
+    private static Product product(long id, String category, String price, int stock, boolean active) {
+        return Product.builder().id(id).name("Product " + id).category(category)
+                .price(new BigDecimal(price)).stock(stock).active(active).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(
+                product(1L, "Electronics", "20.00", 5, true),
+                product(2L, "Electronics", "75.00", 0, true),
+                product(3L, "Books", "15.00", 3, true),
+                product(4L, "Books", "120.00", 1, false),
+                product(5L, "Garden", "60.00", 2, true)));
+        index.rebuild();
+    }
+
+    @Test
+    void search_OrWithinFacetAndAcrossFacets() {
+        ProductFacetFilter filter = ProductFacetFilter.builder()
+                .categories(Set.of("Electronics", "Books"))
+                .inStock(true)
+                .active(true)
+                .build();
+
+        ProductFacetIndex.FacetResult result = index.search(filter, 0, 10);
+
+        assertThat(result.productIds()).containsExactly(1L, 3L);
+        assertThat(result.total()).isEqualTo(2);
+    }
+
+    @Test
+    void search_CountsEachFacetAgainstTheOtherFacetsSelections() {
+        ProductFacetFilter filter = ProductFacetFilter.builder()
+                .categories(Set.of("Electronics"))
+                .active(true)
+                .build();
+
+        Map<String, Map<String, Integer>> facets = index.search(filter, 0, 10).facets();
+
+        // Kategori sayıları kendi seçimini değil, yalnızca active=true filtresini uygular
+        assertThat(facets.get(ProductFacetIndex.CATEGORY)).isEqualTo(Map.of("Books", 1, "Electronics", 2, "Garden", 1));
+        assertThat(facets.get(ProductFacetIndex.PRICE_BAND)).containsEntry("0-50", 1).containsEntry("50-100", 1).containsEntry("100+", 0);
+        assertThat(facets.get(ProductFacetIndex.IN_STOCK)).containsEntry("true", 1).containsEntry("false", 1);
+        assertThat(facets.get(ProductFacetIndex.ACTIVE)).containsEntry("true", 2).containsEntry("false", 0);
+    }
+
+    @Test
+    void search_PagesInProductIdOrder() {
+        ProductFacetFilter all = ProductFacetFilter.builder().build();
+
+        assertThat(index.search(all, 2, 2).productIds()).containsExactly(3L, 4L);
+        assertThat(index.search(all, 10, 2).productIds()).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_UpdatesBitmapsInPlace() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(2L, "Garden", "75.00", 4, true)));
+
+        index.onProductChanged(new ProductChangedEvent(Set.of(2L, 5L), ChangeType.UPDATED)); // 5 silindi
+
+        ProductFacetIndex.FacetResult result = index.search(
+                ProductFacetFilter.builder().categories(Set.of("Garden")).inStock(true).build(), 0, 10);
+        assertThat(result.productIds()).containsExactly(2L);
+        assertThat(index.search(ProductFacetFilter.builder().build(), 0, 10).productIds()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void rebuild_DefersChangesToProductsNotYetScanned() {
+        ProductFacetIndex rebuilding = new ProductFacetIndex(productRepository, new String[]{"0", "50", "100"});
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(7L, "Garden", "10.00", 1, true)));
+        // Yeni ürün 7 için olay, kurulumun ilk sayfası okunmadan önce gelir
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            rebuilding.onProductChanged(new ProductChangedEvent(Set.of(7L), ChangeType.CREATED));
+            return List.of(product(1L, "Electronics", "20.00", 5, true), product(7L, "Garden", "10.00", 1, true));
+        });
+
+        rebuilding.rebuild();
+
+        // 7 sayfadan okunur; olayla erken eklenseydi doküman sırası (ve sayfalama) id sırasından saptı
+        assertThat(rebuilding.search(ProductFacetFilter.builder().build(), 0, 10).productIds()).containsExactly(1L, 7L);
+    }
+}
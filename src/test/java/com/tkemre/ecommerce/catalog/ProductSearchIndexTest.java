@@ -0,0 +1,77 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    private static Product product(long id, String name, String category, boolean active) {
+        return Product.builder().id(id).name(name).category(category)
+                .price(BigDecimal.TEN).stock(1).active(active).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(
+                product(1L, "Wireless Keyboard", "Electronics", true),
+                product(2L, "Keyboard Cover", "Accessories", true),
+                product(3L, "Gaming Mouse", "Electronics", true),
+                product(4L, "Old Keyboard", "Electronics", false),
+                product(5L, "Çelik Termos", "Mutfak", true)));
+        index.rebuild();
+    }
+
+    @Test
+    void search_RanksByRelevanceAndSkipsInactiveProducts() {
+        ProductSearchIndex.SearchResult result = index.search("keyboard electronics", 0, 10);
+
+        // Yalnızca 1 iki terimi de içerir; 4 pasif olduğu için indekste yok
+        assertThat(result.productIds()).containsExactly(1L);
+        assertThat(index.search("keyboard", 0, 10).total()).isEqualTo(2);
+    }
+
+    @Test
+    void search_MatchesPrefixesTyposAndDiacritics() {
+        assertThat(index.search("keyb", 0, 10).productIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("keybord", 0, 10).productIds()).containsExactlyInAnyOrder(1L, 2L); // eksik harf
+        assertThat(index.search("mpuse", 0, 10).productIds()).containsExactly(3L); // değiştirilmiş harf
+        assertThat(index.search("celik", 0, 10).productIds()).containsExactly(5L);
+        assertThat(index.search("laptop", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void search_PagesThroughRankedResults() {
+        List<Long> all = index.search("el", 0, 10).productIds();
+        List<Long> secondPage = index.search("el", 1, 1).productIds();
+
+        assertThat(secondPage).containsExactly(all.get(1));
+    }
+
+    @Test
+    void onProductChanged_UpdatesOnlyChangedProducts() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(3L, "Gaming Keyboard", "Electronics", true)));
+
+        index.onProductChanged(new ProductChangedEvent(Set.of(3L, 1L), ChangeType.UPDATED));
+
+        assertThat(index.search("keyboard", 0, 10).productIds()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.search("mouse", 0, 10).total()).isZero();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
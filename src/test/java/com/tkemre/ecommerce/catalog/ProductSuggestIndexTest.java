@@ -0,0 +1,89 @@
+package com.tkemre.ecommerce.catalog;
+
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.OrderItemRepository;
+import com.tkemre.ecommerce.repository.OrderItemRepository.ProductSales;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+
+    private static Product product(long id, String name) {
+        return Product.builder().id(id).name(name).category("Electronics")
+                .price(BigDecimal.TEN).stock(1).active(true).build();
+    }
+
+    private static ProductSales sales(long productId, long quantity) {
+        return new ProductSales() {
+            public Long getProductId() { return productId; }
+            public Long getQuantity() { return quantity; }
+        };
+    }
+
+    private ProductSuggestIndex buildIndex(int maxEntries) {
+        List<Product> products = List.of(
+                product(1L, "Keyboard"),
+                product(2L, "Keyboard Cover"),
+                product(3L, "Keycap Set"),
+                product(4L, "Mouse"));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(products);
+        // Satışı olan ürünler kurulumda id ile okunur
+        when(productRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return products.stream().filter(product -> ids.contains(product.getId())).toList();
+        });
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(List.of(sales(2L, 50), sales(3L, 20), sales(1L, 5)));
+        ProductSuggestIndex index = new ProductSuggestIndex(productRepository, orderItemRepository, maxEntries, new SimpleMeterRegistry());
+        index.rebuild();
+        return index;
+    }
+
+    @Test
+    void suggest_ReturnsTopKByPopularity() {
+        ProductSuggestIndex index = buildIndex(100);
+
+        assertThat(index.suggest("Key", 2)).extracting(ProductSuggestionDto::id).containsExactly(2L, 3L);
+        assertThat(index.suggest("keyb", 10)).extracting(ProductSuggestionDto::id).containsExactly(2L, 1L);
+        assertThat(index.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_RenamesAndDeletesEntries() {
+        ProductSuggestIndex index = buildIndex(100);
+        doReturn(List.of(product(3L, "Mouse Pad"))).when(productRepository).findAllById(any());
+
+        index.onProductChanged(new ProductChangedEvent(Set.of(3L, 4L), ChangeType.UPDATED)); // 3 yeniden adlandırıldı, 4 silindi
+
+        assertThat(index.suggest("key", 10)).extracting(ProductSuggestionDto::id).containsExactly(2L, 1L);
+        assertThat(index.suggest("mouse", 10)).extracting(ProductSuggestionDto::popularity).containsExactly(20L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuild_KeepsMostPopularEntriesWithinBudget() {
+        ProductSuggestIndex index = buildIndex(2);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.suggest("k", 10)).extracting(ProductSuggestionDto::id).containsExactly(2L, 3L);
+        assertThat(index.bytesPerEntry()).isPositive();
+    }
+}
@@ -0,0 +1,61 @@
+package com.tkemre.ecommerce.config;
+
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// normalized_name sütunundan önce oluşturulmuş, dolu bir products tablosuyla (ddl-auto=update) uygulamanın açıldığını
+// ve eski satırların doldurulduğunu doğrular
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductNameBackfillTest {
+
+    private static final String URL = "jdbc:h2:mem:legacy-products;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE, "
+                    + "category VARCHAR(255) NOT NULL, price NUMERIC(38,2) NOT NULL, stock INTEGER NOT NULL, "
+                    + "active BOOLEAN NOT NULL)");
+            statement.execute("INSERT INTO products VALUES (1, '  Desk Lamp ', 'Home', 10, 5, TRUE), "
+                    + "(2, 'Office Chair', 'Home', 20, 3, TRUE)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+    }
+
+    @Test
+    void existingRows_areBackfilledAndColumnIsTightened() {
+        assertThat(productRepository.findById(1L).orElseThrow().getNormalizedName()).isEqualTo("desk lamp");
+        assertThat(productRepository.existsByNormalizedName("office chair")).isTrue();
+
+        // Doldurma bittikten sonra sütun NOT NULL'a çekilir; kısıt yeni satırlar için yine geçerlidir
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO products (id, name, category, price, stock, active, version) "
+                + "VALUES (3, 'Bare', 'Home', 1, 1, TRUE, 0)"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> productRepository.saveAndFlush(Product.builder()
+                .name("DESK LAMP").category("Home").price(BigDecimal.ONE).stock(1).build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
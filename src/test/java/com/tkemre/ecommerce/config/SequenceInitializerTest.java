@@ -0,0 +1,51 @@
+package com.tkemre.ecommerce.config;
+
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SequenceInitializerTest {
+
+    @Autowired private SequenceInitializer sequenceInitializer;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void sequenceBehindExistingRows_isMovedPastTheLargestId() {
+        // IDENTITY döneminden kalmış bir satırı ve 1'den başlayan sequence'ı taklit et
+        Product product = productRepository.save(Product.builder()
+                .name("Legacy").category("Legacy").price(BigDecimal.ONE).stock(1).build());
+        jdbcTemplate.update("UPDATE products SET id = 10000 WHERE id = ?", product.getId());
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH 1");
+
+        sequenceInitializer.synchronizeSequences();
+
+        long hi = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR products_seq", Long.class);
+        assertThat(hi - 49).isGreaterThan(10_000L);
+    }
+
+    @Test
+    void sequenceAlreadyAhead_isLeftAlone() {
+        jdbcTemplate.execute("ALTER SEQUENCE orders_seq RESTART WITH 5000");
+
+        sequenceInitializer.synchronizeSequences();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR orders_seq", Long.class)).isEqualTo(5000L);
+    }
+}
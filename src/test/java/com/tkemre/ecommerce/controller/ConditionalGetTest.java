@@ -0,0 +1,134 @@
+package com.tkemre.ecommerce.controller;
+
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
+import com.tkemre.ecommerce.dto.UpdateProductRequest;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.service.OrderService;
+import com.tkemre.ecommerce.service.ProductService;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Satır sürümü ETag'leri: sürüm cache'i sıcakken eşleşen If-None-Match sorgusuz 304 alır, değişiklikler yeni ETag üretir
+class ConditionalGetTest extends CheckoutIntegrationTest {
+
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private ProductService productService;
+    @Autowired private OrderService orderService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        product = saveProduct("ETag Product", BigDecimal.TEN, 50);
+    }
+
+    @Test
+    void product_warmVersionCacheAnswers304WithoutQueries_andStockChangesBumpVersion() throws Exception {
+        String path = "/api/v1/products/" + product.getId();
+        String etag = etagOf(path, null);
+        assertThat(etag).isEqualTo("\"product-" + product.getId() + "-0\"");
+
+        statistics.clear();
+        mockMvc.perform(get(path).with(user(BUYER)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // JDBC toplu stok güncellemesi de satır sürümünü artırır
+        productService.bulkUpdateStock(new BulkStockUpdateRequest(BulkStockUpdateRequest.Mode.DELTA,
+                List.of(new BulkStockUpdateRequest.Item(product.getId(), -5))));
+        String changed = etagOf(path, etag);
+        assertThat(changed).isEqualTo("\"product-" + product.getId() + "-1\"");
+    }
+
+    @Test
+    void catalogList_usesCollectionVersion() throws Exception {
+        String path = "/api/v1/products";
+        String etag = etagOf(path, null);
+
+        statistics.clear();
+        mockMvc.perform(get(path).with(user(BUYER)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        productService.updateProductStock(product.getId(), 7);
+        assertThat(etagOf(path, etag)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void order_304OnlyForOwner_andStatusChangeBumpsVersion() throws Exception {
+        OrderDto order = orderService.createOrder(BUYER, orderRequest(item(product, 2)));
+        String path = "/api/v1/orders/" + order.id();
+        String etag = etagOf(path, null);
+        assertThat(etag).startsWith("\"order-" + order.id() + "-0-");
+
+        statistics.clear();
+        mockMvc.perform(get(path).with(user(BUYER)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Cache'teki sürüm başka bir kullanıcıya siparişin varlığını sızdırmaz
+        saveUser("other@example.com");
+        mockMvc.perform(get(path).with(user("other@example.com")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+
+        orderService.updateOrderStatus(order.id(), new UpdateOrderStatusRequest(OrderStatus.PROCESSING));
+        assertThat(etagOf(path, etag)).startsWith("\"order-" + order.id() + "-1-");
+    }
+
+    @Test
+    void order_embeddedProductChangeBumpsETag_butStockChangeDoesNot() throws Exception {
+        OrderDto order = orderService.createOrder(BUYER, orderRequest(item(product, 2)));
+        String path = "/api/v1/orders/" + order.id();
+        String etag = etagOf(path, null);
+
+        // Stok sipariş yanıtında yer almaz: cache'teki ETag geçerli kalır
+        productService.updateProductStock(product.getId(), 40);
+        mockMvc.perform(get(path).with(user(BUYER)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Sipariş satırı değişmese de yanıttaki ürün adı değişir; cache'teki ETag ile 304 dönmemeli
+        productService.updateProduct(product.getId(), new UpdateProductRequest("Renamed Product", "Electronics",
+                BigDecimal.TEN, 40, true));
+        String renamed = etagOf(path, etag);
+        assertThat(renamed).startsWith("\"order-" + order.id() + "-0-").isNotEqualTo(etag);
+    }
+
+    // ifNoneMatch verilirse artık eşleşmediği (200 döndüğü) de doğrulanır
+    private String etagOf(String path, String ifNoneMatch) throws Exception {
+        var request = get(path).with(user(BUYER));
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,195 @@
+package com.tkemre.ecommerce.inventory;
+
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Çökme senaryoları: bir defter örneği kapatılmadan bırakılır ve aynı günlük dosyasıyla yenisi açılır
+class InventoryLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private InventoryLedger open(int journalSize) {
+        return new InventoryLedger(productRepository, mock(ApplicationEventPublisher.class),
+                directory.resolve("inventory.journal"), journalSize, false, 500);
+    }
+
+    private void givenProducts(Product... products) {
+        when(productRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            List<Long> ids = List.copyOf(invocation.getArgument(0));
+            return List.of(products).stream().filter(p -> ids.contains(p.getId())).toList();
+        });
+    }
+
+    private static Product product(long id, int stock) {
+        return Product.builder().id(id).name("Product " + id).category("Electronics")
+                .price(BigDecimal.TEN).stock(stock).active(true).build();
+    }
+
+    private static SortedMap<Long, Integer> quantities(long productId, int quantity) {
+        return new TreeMap<>(Map.of(productId, quantity));
+    }
+
+    @Test
+    void crash_recoversExactCountsFromJournal() {
+        givenProducts(product(1, 10), product(2, 5));
+        InventoryLedger ledger = open(1 << 20);
+        ledger.reserve(quantities(1, 3));
+        ledger.confirm(quantities(1, 3));
+        ledger.setAvailable(quantities(2, 40));
+        ledger.restock(quantities(1, 1));
+        // Veritabanına hiç yazılmadan süreç çöküyor (flush/close yok)
+
+        InventoryLedger recovered = open(1 << 20);
+
+        assertThat(recovered.available(1L)).isEqualTo(8);
+        assertThat(recovered.available(2L)).isEqualTo(40);
+        recovered.flush();
+        verify(productRepository).setStock(new TreeMap<>(Map.of(1L, 8, 2L, 40)));
+    }
+
+    @Test
+    void crash_releasesReservationsOfUncommittedOrders() {
+        givenProducts(product(1, 10));
+        InventoryLedger ledger = open(1 << 20);
+        ledger.reserve(quantities(1, 4)); // Onaylanmadı: sipariş işlemi commit edilmedi
+
+        InventoryLedger recovered = open(1 << 20);
+
+        assertThat(recovered.available(1L)).isEqualTo(10);
+        assertThat(recovered.reserved(1L)).isZero();
+    }
+
+    @Test
+    void tornLastRecord_isIgnoredOnReplay() throws IOException {
+        givenProducts(product(1, 10));
+        InventoryLedger ledger = open(1 << 20);
+        ledger.reserve(quantities(1, 2));
+        ledger.confirm(quantities(1, 2));
+        ledger.reserve(quantities(1, 5));
+        ledger.confirm(quantities(1, 5)); // Bu kayıt yarım yazılmış gibi bozulacak
+
+        Path journal = directory.resolve("inventory.journal");
+        try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+            long last = 0;
+            for (long offset = 0; offset + InventoryJournal.RECORD_SIZE <= file.length(); offset += InventoryJournal.RECORD_SIZE) {
+                file.seek(offset);
+                if (file.readLong() == 0) {
+                    break;
+                }
+                last = offset;
+            }
+            file.seek(last + 20);
+            file.writeInt(-99);
+        }
+
+        InventoryLedger recovered = open(1 << 20);
+
+        // Son onay kaybolur; ondan önceki ayırma açık kaldığı için stoğa geri verilir
+        assertThat(recovered.available(1L)).isEqualTo(8);
+        assertThat(recovered.reserved(1L)).isZero();
+    }
+
+    @Test
+    void fullJournal_isCompactedAndStillRecovers() {
+        givenProducts(product(1, 1000), product(2, 1000));
+        InventoryLedger ledger = open(InventoryJournal.RECORD_SIZE * 16);
+        for (int i = 0; i < 200; i++) {
+            ledger.reserve(new TreeMap<>(Map.of(1L, 1, 2L, 2)));
+            ledger.confirm(new TreeMap<>(Map.of(1L, 1, 2L, 2)));
+        }
+
+        InventoryLedger recovered = open(InventoryJournal.RECORD_SIZE * 16);
+
+        assertThat(recovered.available(1L)).isEqualTo(800);
+        assertThat(recovered.available(2L)).isEqualTo(600);
+    }
+
+    @Test
+    void reserve_isAllOrNothing() {
+        givenProducts(product(1, 10), product(2, 1));
+        InventoryLedger ledger = open(1 << 20);
+
+        boolean[] results = ledger.reserve(new TreeMap<>(Map.of(1L, 5, 2L, 2)));
+
+        assertThat(results).containsExactly(true, false);
+        assertThat(ledger.available(1L)).isEqualTo(10);
+        assertThat(ledger.available(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackTransaction_releasesReservation() {
+        givenProducts(product(1, 10));
+        InventoryLedger ledger = open(1 << 20);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.reserveForTransaction(quantities(1, 3));
+            assertThat(ledger.available(1L)).isEqualTo(7);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ledger.available(1L)).isEqualTo(10);
+        assertThat(ledger.reserved(1L)).isZero();
+    }
+
+    @Test
+    void committedTransaction_isConfirmedOnlyAfterCommit() {
+        givenProducts(product(1, 10));
+        InventoryLedger ledger = open(1 << 20);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.reserveForTransaction(quantities(1, 3));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            // Veritabanı commit'i henüz olmadı: ayırma açık kalır, bu noktada çökülürse iade edilir
+            assertThat(ledger.reserved(1L)).isEqualTo(3);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ledger.available(1L)).isEqualTo(7);
+        assertThat(ledger.reserved(1L)).isZero();
+        assertThat(open(1 << 20).available(1L)).isEqualTo(7);
+    }
+
+    @Test
+    void flush_writesOnlyDirtyProducts() {
+        givenProducts(product(1, 10), product(2, 5));
+        InventoryLedger ledger = open(1 << 20);
+        ledger.reserve(quantities(1, 1));
+        ledger.flush();
+        ledger.flush();
+
+        verify(productRepository).setStock(new TreeMap<>(Map.of(1L, 9)));
+        verify(productRepository, never()).setStock(new TreeMap<>(Map.of(2L, 5)));
+        verify(productRepository, never()).saveAll(any());
+    }
+}
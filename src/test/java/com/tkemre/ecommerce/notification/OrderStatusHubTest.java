@@ -0,0 +1,107 @@
+package com.tkemre.ecommerce.notification;
+
+import com.tkemre.ecommerce.event.OrderStatusChangedEvent;
+import com.tkemre.ecommerce.event.OrderStatusChangedEvent.OrderRef;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Olayların yalnızca sipariş sahibine gittiğini, Last-Event-ID ile kaçırılanların tekrar gönderildiğini ve
+// yavaş/zaman aşımına uğrayan bağlantıların kapatıldığını doğrular
+class OrderStatusHubTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStatusHub hub = new OrderStatusHub(mock(UserRepository.class), Duration.ofMinutes(1), 4, 4, 2,
+            meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        hub.close();
+    }
+
+    @Test
+    void statusChange_isPushedOnlyToOwner() {
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter otherUser = new RecordingEmitter();
+        hub.subscribe(1L, null, owner);
+        hub.subscribe(2L, null, otherUser);
+
+        hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.SHIPPED, List.of(new OrderRef(10L, 1L))));
+
+        owner.awaitEvents(1);
+        assertThat(owner.events.get(0)).contains("event:order-status").contains("\"orderId\":10").contains("SHIPPED");
+        hub.heartbeat();
+        otherUser.awaitEvents(1);
+        assertThat(otherUser.events).allMatch(event -> event.contains("heartbeat"));
+    }
+
+    @Test
+    void reconnectWithLastEventId_replaysMissedEventsOrAsksForResync() {
+        RecordingEmitter first = new RecordingEmitter();
+        hub.subscribe(1L, null, first);
+        hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.PROCESSING, List.of(new OrderRef(10L, 1L))));
+        first.awaitEvents(1);
+        long lastSeen = first.lastEventId();
+        first.complete();
+
+        // Bağlantı kopukken iki olay (biri başka kullanıcıya ait)
+        hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.SHIPPED,
+                List.of(new OrderRef(10L, 1L), new OrderRef(20L, 2L))));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        hub.subscribe(1L, lastSeen, resumed);
+        resumed.awaitEvents(1);
+        assertThat(resumed.events.get(0)).contains("SHIPPED").contains("\"orderId\":10");
+
+        // Tampon (4 olay) taşınca eski Last-Event-ID ile gelen istemciden siparişleri yeniden okuması istenir
+        for (int i = 0; i < 5; i++) {
+            hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.DELIVERED, List.of(new OrderRef(30L, 3L))));
+        }
+        RecordingEmitter stale = new RecordingEmitter();
+        hub.subscribe(1L, lastSeen, stale);
+        stale.awaitEvents(1);
+        assertThat(stale.events.get(0)).contains("event:resync");
+    }
+
+    @Test
+    void timeout_completesEmitterAndStopsDelivery() {
+        RecordingEmitter timedOut = new RecordingEmitter();
+        hub.subscribe(1L, null, timedOut);
+        timedOut.timeOut();
+        assertThat(timedOut.completed).isTrue();
+
+        RecordingEmitter active = new RecordingEmitter();
+        hub.subscribe(1L, null, active);
+        hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.SHIPPED, List.of(new OrderRef(10L, 1L))));
+        active.awaitEvents(1);
+        assertThat(timedOut.events).isEmpty();
+    }
+
+    @Test
+    void slowSubscriber_isDisconnectedWithoutDelayingOthers() {
+        RecordingEmitter slow = new RecordingEmitter().blockSends();
+        RecordingEmitter fast = new RecordingEmitter();
+        hub.subscribe(1L, null, slow);
+        hub.subscribe(1L, null, fast);
+
+        // Yavaş istemci ilk olayın gönderiminde takılı kalır ve kuyruğu (4 olay) taşar; diğer bağlantı her olayı alır
+        for (int i = 0; i < 6; i++) {
+            hub.onOrderStatusChanged(new OrderStatusChangedEvent(OrderStatus.PROCESSING, List.of(new OrderRef(10L + i, 1L))));
+            fast.awaitEvents(i + 1);
+        }
+        assertThat(slow.completed).isTrue();
+        slow.releaseSends();
+
+        assertThat(slow.events.size()).isLessThanOrEqualTo(1);
+        assertThat(meterRegistry.counter("orders.stream.slow-disconnects").count()).isEqualTo(1);
+    }
+}
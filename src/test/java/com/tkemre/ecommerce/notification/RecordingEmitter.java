@@ -0,0 +1,91 @@
+package com.tkemre.ecommerce.notification;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Gönderilen her olayı SSE metin biçiminde kaydeden emitter (HTTP bağlantısı olmadan hub testleri için).
+// Zaman aşımı elle tetiklenebilir; gönderimler yavaş bir istemciyi taklit etmek için bekletilebilir.
+class RecordingEmitter extends SseEmitter {
+
+    final List<String> events = new CopyOnWriteArrayList<>();
+    volatile boolean completed;
+    private volatile Runnable timeoutCallback;
+    private volatile CountDownLatch sendsReleased = new CountDownLatch(0);
+
+    @Override
+    public void send(SseEventBuilder builder) {
+        try {
+            sendsReleased.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        StringBuilder text = new StringBuilder();
+        for (DataWithMediaType part : builder.build()) {
+            Object data = part.getData();
+            text.append(data instanceof String string ? string : toJson(data));
+        }
+        events.add(text.toString());
+    }
+
+    @Override
+    public void onTimeout(Runnable callback) {
+        timeoutCallback = callback;
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+        super.complete();
+    }
+
+    // Servlet konteynerinin zaman aşımı bildirimi
+    void timeOut() {
+        timeoutCallback.run();
+    }
+
+    RecordingEmitter blockSends() {
+        sendsReleased = new CountDownLatch(1);
+        return this;
+    }
+
+    void releaseSends() {
+        sendsReleased.countDown();
+    }
+
+    // Hub'lar gönderimi arka planda yapar; en az count olay gelene kadar bekler
+    RecordingEmitter awaitEvents(int count) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        try {
+            while (events.size() < count) {
+                if (System.nanoTime() > deadline) {
+                    throw new AssertionError("Expected " + count + " events but got " + events);
+                }
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+        return this;
+    }
+
+    long lastEventId() {
+        String event = events.get(events.size() - 1);
+        int start = event.indexOf("id:") + 3;
+        return Long.parseLong(event.substring(start, event.indexOf('\n', start)));
+    }
+
+    private static String toJson(Object data) {
+        try {
+            return Jackson2ObjectMapperBuilder.json().build().writeValueAsString(data);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.tkemre.ecommerce.notification;
+
+import com.tkemre.ecommerce.event.ProductChangedEvent;
+import com.tkemre.ecommerce.event.ProductChangedEvent.ChangeType;
+import com.tkemre.ecommerce.exception.InvalidStockSubscriptionException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Stok değişikliklerinin pencere içinde ürün başına birleştirildiğini, yalnızca izleyen abonelere gittiğini ve
+// yavaş/zaman aşımına uğrayan bağlantıların kapatıldığını doğrular
+class StockFeedHubTest {
+
+    private final Map<Long, Integer> stock = new ConcurrentHashMap<>(Map.of(1L, 10, 2L, 20, 3L, 30));
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<InventoryLedger> inventoryLedger = mock(ObjectProvider.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StockFeedHub hub = new StockFeedHub(productRepository, inventoryLedger, 2, Duration.ofMinutes(1), 2, 2,
+            meterRegistry);
+
+    StockFeedHubTest() {
+        when(productRepository.findStockLevels(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(stock::containsKey).map(id -> row(id, stock.get(id))).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.close();
+    }
+
+    @Test
+    void burstOfChanges_isCoalescedIntoOneUpdatePerWindow() {
+        RecordingEmitter watcher = new RecordingEmitter();
+        hub.subscribe(Set.of(1L, 2L), watcher);
+        watcher.awaitEvents(1);
+        assertThat(watcher.events.get(0)).contains("\"stock\":10").contains("\"stock\":20");
+
+        // Çok satılan ürün: aynı pencerede 10 sipariş
+        for (int i = 0; i < 10; i++) {
+            stock.merge(1L, -1, Integer::sum);
+            hub.onProductChanged(ProductChangedEvent.of(1L, ChangeType.STOCK_CHANGED));
+        }
+        hub.onProductChanged(ProductChangedEvent.of(3L, ChangeType.STOCK_CHANGED)); // İzlenmeyen ürün
+        hub.flush();
+
+        watcher.awaitEvents(2);
+        assertThat(watcher.events.get(1)).contains("[{\"productId\":1,\"stock\":0,\"active\":true}]");
+
+        // Değeri değişmeyen ürün tekrar gönderilmez
+        hub.onProductChanged(ProductChangedEvent.of(2L, ChangeType.UPDATED));
+        hub.flush();
+        stock.put(1L, 5);
+        hub.onProductChanged(ProductChangedEvent.of(1L, ChangeType.STOCK_CHANGED));
+        hub.flush();
+        watcher.awaitEvents(3);
+        assertThat(watcher.events).hasSize(3);
+        assertThat(watcher.events.get(2)).contains("\"productId\":1,\"stock\":5");
+    }
+
+    @Test
+    void deletedProduct_isReportedAsUnavailable() {
+        RecordingEmitter watcher = new RecordingEmitter();
+        hub.subscribe(Set.of(3L), watcher);
+        watcher.awaitEvents(1);
+
+        stock.remove(3L);
+        hub.onProductChanged(ProductChangedEvent.of(3L, ChangeType.DELETED));
+        hub.flush();
+
+        watcher.awaitEvents(2);
+        assertThat(watcher.events.get(1)).contains("\"productId\":3,\"stock\":0,\"active\":false");
+    }
+
+    @Test
+    void timeout_completesEmitterAndStopsUpdates() {
+        RecordingEmitter timedOut = new RecordingEmitter();
+        hub.subscribe(Set.of(1L), timedOut);
+        timedOut.awaitEvents(1);
+        timedOut.timeOut();
+        assertThat(timedOut.completed).isTrue();
+
+        RecordingEmitter active = new RecordingEmitter();
+        hub.subscribe(Set.of(1L), active);
+        active.awaitEvents(1);
+        stock.put(1L, 7);
+        hub.onProductChanged(ProductChangedEvent.of(1L, ChangeType.STOCK_CHANGED));
+        hub.flush();
+        active.awaitEvents(2);
+        assertThat(timedOut.events).hasSize(1);
+    }
+
+    @Test
+    void slowSubscriber_isDisconnectedWithoutDelayingOthers() {
+        RecordingEmitter slow = new RecordingEmitter().blockSends();
+        RecordingEmitter fast = new RecordingEmitter();
+        hub.subscribe(Set.of(1L), slow);
+        hub.subscribe(Set.of(1L), fast);
+        fast.awaitEvents(1);
+
+        // Yavaş istemci ilk olayın gönderiminde takılı kalır ve kuyruğu (2 olay) taşar; diğer bağlantı her olayı alır
+        for (int i = 0; i < 3; i++) {
+            stock.put(1L, i);
+            hub.onProductChanged(ProductChangedEvent.of(1L, ChangeType.STOCK_CHANGED));
+            hub.flush();
+            fast.awaitEvents(i + 2);
+        }
+        assertThat(slow.completed).isTrue();
+        slow.releaseSends();
+
+        assertThat(slow.events.size()).isLessThanOrEqualTo(1);
+        assertThat(meterRegistry.counter("stock.feed.slow-disconnects").count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscriptionSize_isBounded() {
+        assertThatThrownBy(() -> hub.subscribe(Set.of(1L, 2L, 3L))).isInstanceOf(InvalidStockSubscriptionException.class);
+        assertThatThrownBy(() -> hub.subscribe(Set.of())).isInstanceOf(InvalidStockSubscriptionException.class);
+    }
+
+    private static ProductRepository.StockLevel row(Long id, Integer stock) {
+        return new ProductRepository.StockLevel() {
+            @Override public Long getId() { return id; }
+            @Override public Integer getStock() { return stock; }
+            @Override public Boolean getActive() { return true; }
+        };
+    }
+}
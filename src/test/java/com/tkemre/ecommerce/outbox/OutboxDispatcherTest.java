@@ -0,0 +1,119 @@
+package com.tkemre.ecommerce.outbox;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.model.OutboxEvent;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.service.OrderService;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Outbox olaylarının siparişle aynı işlemde yazıldığını, sırayla iletildiğini ve hata sonrası yeniden denendiğini doğrular
+@SpringBootTest(properties = {"outbox.enabled=true", "outbox.dispatch-interval=PT1H"})
+@Import(OutboxDispatcherTest.RecordingSinkConfig.class)
+class OutboxDispatcherTest extends CheckoutIntegrationTest {
+
+    @Autowired private OutboxDispatcher outboxDispatcher;
+    @Autowired private RecordingSink recordingSink;
+    @Autowired private OrderService orderService;
+
+    private CreateOrderRequest request;
+    private Product lamp;
+
+    @BeforeEach
+    void setUp() {
+        lamp = saveProduct("Lamp", BigDecimal.TEN, 5);
+        request = orderRequest(item(lamp, 2));
+        outboxDispatcher.dispatch();
+        recordingSink.delivered.clear();
+    }
+
+    @Test
+    void orderLifecycle_isDeliveredInOrderAndRemovedFromOutbox() {
+        Long orderId = orderService.createOrder(BUYER, request).id();
+        orderService.updateOrderStatus(orderId, new UpdateOrderStatusRequest(OrderStatus.PROCESSING));
+        orderService.cancelOrder(orderId, BUYER);
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(3);
+
+        assertThat(recordingSink.delivered).extracting(OutboxEvent::getType).containsExactly(
+                OutboxEvent.Type.CREATED, OutboxEvent.Type.STATUS_CHANGED, OutboxEvent.Type.CANCELED);
+        assertThat(recordingSink.delivered).allMatch(event -> event.getOrderId().equals(orderId));
+        assertThat(recordingSink.delivered.get(0).getPayload()).contains("\"productId\":" + lamp.getId());
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackOrder_writesNoEvent() {
+        CreateOrderRequest tooMany = orderRequest(item(lamp, 50));
+
+        assertThatThrownBy(() -> orderService.createOrder(BUYER, tooMany)).isInstanceOf(OutOfStockException.class);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void largeOrder_isAcceptedWithItsFullPayload() {
+        List<CreateOrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(item(saveProduct("Outbox Line " + i, BigDecimal.ONE, 10), 1));
+        }
+
+        Long orderId = orderService.createOrder(BUYER, new CreateOrderRequest(address.getId(), items)).id();
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(1);
+        String payload = recordingSink.delivered.get(0).getPayload();
+        assertThat(payload.length()).isGreaterThan(4000);
+        assertThat(payload).contains("\"orderId\":" + orderId).contains("\"productId\":" + items.get(199).productId());
+    }
+
+    @Test
+    void failedDelivery_isRetriedOnNextDispatch() {
+        orderService.createOrder(BUYER, request);
+        recordingSink.failNext.set(true);
+
+        assertThat(outboxDispatcher.dispatch()).isZero();
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(1);
+        assertThat(recordingSink.delivered).hasSize(1);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class RecordingSink implements OutboxSink {
+        final List<OutboxEvent> delivered = new ArrayList<>();
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Override
+        public synchronized void deliver(List<OutboxEvent> events) {
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            delivered.addAll(events);
+        }
+    }
+}
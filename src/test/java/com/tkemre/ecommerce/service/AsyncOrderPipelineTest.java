@@ -0,0 +1,131 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.AsyncOrderPipeline;
+import com.tkemre.ecommerce.checkout.OrderCheckout;
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.dto.OrderRequestStatusDto;
+import com.tkemre.ecommerce.dto.OrderRequestStatusDto.Status;
+import com.tkemre.ecommerce.exception.OrderPipelineShutdownException;
+import com.tkemre.ecommerce.exception.OrderQueueFullException;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+// Asenkron kabul: istek hemen QUEUED döner, sonuç tek yazıcı thread tarafından işlenir; kuyruk doluysa 429,
+// kapanışta 503 ve kuyruktaki siparişler işlenir
+@SpringBootTest(properties = {"checkout.async.enabled=true", "checkout.async.queue-capacity=1"})
+@ActiveProfiles("test")
+class AsyncOrderPipelineTest {
+
+    private static final CreateOrderRequest REQUEST =
+            new CreateOrderRequest(1L, List.of(new CreateOrderItemRequest(1L, 1)));
+
+    @Autowired private AsyncOrderPipeline pipeline;
+    @MockBean private OrderCheckout orderCheckout;
+
+    private OrderRequestStatusDto awaitFinal(String token, String username) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            OrderRequestStatusDto status = pipeline.status(token, username).orElseThrow();
+            if (status.status() != Status.QUEUED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Order request " + token + " was not processed");
+    }
+
+    @Test
+    void acceptedOrder_isProcessedInBackgroundAndVisibleOnlyToOwner() throws Exception {
+        when(orderCheckout.placeOrder(eq("alice@example.com"), any(), any())).thenReturn(OrderDto.builder().id(42L).build());
+        when(orderCheckout.placeOrder(eq("bob@example.com"), any(), any())).thenThrow(new OutOfStockException("Phone"));
+
+        OrderRequestStatusDto accepted = pipeline.submit("alice@example.com", REQUEST, null);
+        assertThat(accepted.status()).isEqualTo(Status.QUEUED);
+        assertThat(awaitFinal(accepted.token(), "alice@example.com"))
+                .extracting(OrderRequestStatusDto::status, OrderRequestStatusDto::orderId)
+                .containsExactly(Status.COMPLETED, 42L);
+
+        OrderRequestStatusDto rejected = pipeline.submit("bob@example.com", REQUEST, null);
+        assertThat(awaitFinal(rejected.token(), "bob@example.com"))
+                .extracting(OrderRequestStatusDto::status, OrderRequestStatusDto::error)
+                .containsExactly(Status.FAILED, "Product Phone is out of stock");
+        assertThat(pipeline.status(accepted.token(), "bob@example.com")).isEmpty();
+    }
+
+    @Test
+    void fullQueue_rejectsWithBackpressure() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderCheckout.placeOrder(any(), any(), any())).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return OrderDto.builder().id(1L).build();
+        });
+
+        OrderRequestStatusDto first = pipeline.submit("carol@example.com", REQUEST, null);
+        assertThat(writerBusy.await(5, TimeUnit.SECONDS)).isTrue(); // Yazıcı ilk siparişte meşgul
+        OrderRequestStatusDto second = pipeline.submit("carol@example.com", REQUEST, null); // Kuyruğun tek yeri dolar
+
+        assertThat(pipeline.queueDepth()).isEqualTo(1);
+        assertThatThrownBy(() -> pipeline.submit("carol@example.com", REQUEST, null))
+                .isInstanceOf(OrderQueueFullException.class);
+
+        release.countDown();
+        assertThat(awaitFinal(first.token(), "carol@example.com").status()).isEqualTo(Status.COMPLETED);
+        assertThat(awaitFinal(second.token(), "carol@example.com").status()).isEqualTo(Status.COMPLETED);
+    }
+
+    @Test
+    void shutdown_rejectsNewOrdersAndDrainsQueue() throws Exception {
+        // Kapanış bağlamı bozmasın diye ayrı bir pipeline
+        AsyncOrderPipeline drained = new AsyncOrderPipeline(orderCheckout, 4, Duration.ofMinutes(1), Duration.ofSeconds(10),
+                new SimpleMeterRegistry());
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderCheckout.placeOrder(eq("dave@example.com"), any(), any())).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return OrderDto.builder().id(7L).build();
+        });
+
+        OrderRequestStatusDto first = drained.submit("dave@example.com", REQUEST, null);
+        assertThat(writerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        OrderRequestStatusDto queued = drained.submit("dave@example.com", REQUEST, null);
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            try {
+                drained.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(200); // Kapanış başladı; yazıcı hâlâ ilk siparişte meşgul
+        assertThat(shutdown).isNotDone();
+        assertThatThrownBy(() -> drained.submit("dave@example.com", REQUEST, null))
+                .isInstanceOf(OrderPipelineShutdownException.class);
+
+        release.countDown();
+        shutdown.get(10, TimeUnit.SECONDS);
+        assertThat(drained.queueDepth()).isZero();
+        assertThat(drained.status(first.token(), "dave@example.com").orElseThrow().orderId()).isEqualTo(7L);
+        assertThat(drained.status(queued.token(), "dave@example.com").orElseThrow().status()).isEqualTo(Status.COMPLETED);
+    }
+}
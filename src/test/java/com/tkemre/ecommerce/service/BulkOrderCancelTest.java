@@ -0,0 +1,109 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.BulkCancelOrdersResult;
+import com.tkemre.ecommerce.dto.UpdateOrderStatusRequest;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Toplu iptalin sipariş bazında sonuç raporunu ve stoğun ürün bazında toplanarak iade edildiğini doğrular
+class BulkOrderCancelTest extends CheckoutIntegrationTest {
+
+    @Autowired private OrderService orderService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Product phone;
+    private Product charger;
+
+    @BeforeEach
+    void setUp() {
+        phone = saveProduct("Phone", BigDecimal.TEN, 1000);
+        charger = saveProduct("Charger", BigDecimal.ONE, 1000);
+    }
+
+    @Test
+    void cancelOrders_reportsOutcomePerOrderAndRestocksInAggregate() {
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            orderIds.add(placeOrder());
+        }
+        Long shipped = orderIds.get(0);
+        orderService.updateOrderStatus(shipped, new UpdateOrderStatusRequest(OrderStatus.SHIPPED));
+        Long missing = -1L;
+
+        List<Long> requested = new ArrayList<>(orderIds);
+        requested.add(missing);
+        requested.add(orderIds.get(5)); // Tekrarlanan id tek kez işlenir
+        BulkCancelOrdersResult result = orderService.cancelOrders(requested);
+
+        assertThat(result.canceled()).hasSize(39).doesNotContain(shipped);
+        assertThat(result.notCancelable()).containsExactly(shipped);
+        assertThat(result.notFound()).containsExactly(missing);
+        assertThat(result.releasedUnits()).isEqualTo(39 * 4);
+        assertThat(orderRepository.findAllById(result.canceled()))
+                .allMatch(order -> order.getStatus() == OrderStatus.CANCELED);
+        // Yalnızca kargodaki siparişin kalemleri stoktan düşülmüş kalır
+        assertThat(productRepository.findById(phone.getId()).orElseThrow().getStock()).isEqualTo(1000 - 1);
+        assertThat(productRepository.findById(charger.getId()).orElseThrow().getStock()).isEqualTo(1000 - 3);
+
+        // İkinci çağrı hiçbir şeyi tekrar iade etmez
+        BulkCancelOrdersResult repeated = orderService.cancelOrders(result.canceled());
+        assertThat(repeated.canceled()).isEmpty();
+        assertThat(repeated.notCancelable()).hasSize(39);
+        assertThat(repeated.releasedUnits()).isZero();
+    }
+
+    @Test
+    void cancelOrder_waitsForConcurrentBulkCancelAndSeesCanceledStatus() throws Exception {
+        Long orderId = placeOrder();
+        CountDownLatch bulkCanceled = new CountDownLatch(1);
+        CountDownLatch commitBulk = new CountDownLatch(1);
+
+        // Toplu iptal satırı kilitler ve commit etmeden bekler
+        CompletableFuture<Void> bulk = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    orderService.cancelOrders(List.of(orderId));
+                    bulkCanceled.countDown();
+                    try {
+                        commitBulk.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(bulkCanceled.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Tekil iptal kilidi bekler; toplu iptal commit edilince siparişi CANCELED görür (eski sürümle çakışmaz)
+        CompletableFuture<Void> single = CompletableFuture.runAsync(() -> orderService.cancelOrder(orderId, BUYER));
+        Thread.sleep(200);
+        assertThat(single).isNotDone();
+        commitBulk.countDown();
+        bulk.get(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> single.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        // Stok yalnızca bir kez iade edilir
+        assertThat(productRepository.findById(phone.getId()).orElseThrow().getStock()).isEqualTo(1000);
+        assertThat(productRepository.findById(charger.getId()).orElseThrow().getStock()).isEqualTo(1000);
+    }
+
+    private Long placeOrder() {
+        return orderService.createOrder(BUYER, orderRequest(item(phone, 1), item(charger, 3))).id();
+    }
+}
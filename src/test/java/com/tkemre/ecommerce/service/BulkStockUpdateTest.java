@@ -0,0 +1,73 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest;
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest.Item;
+import com.tkemre.ecommerce.dto.BulkStockUpdateRequest.Mode;
+import com.tkemre.ecommerce.dto.BulkStockUpdateResult;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkStockUpdateTest {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+
+    private Product first;
+    private Product second;
+
+    @BeforeEach
+    void setUp() {
+        first = productRepository.save(Product.builder().name("Bulk A").category("Bulk").price(BigDecimal.ONE).stock(10).build());
+        second = productRepository.save(Product.builder().name("Bulk B").category("Bulk").price(BigDecimal.ONE).stock(2).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void deltaMode_aggregatesDuplicatesAndRejectsNegativeResults() {
+        BulkStockUpdateResult result = productService.bulkUpdateStock(new BulkStockUpdateRequest(Mode.DELTA, List.of(
+                new Item(first.getId(), 5),
+                new Item(first.getId(), -3),
+                new Item(second.getId(), -5),
+                new Item(999_999L, 1))));
+
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.rejected()).containsExactly(second.getId());
+        assertThat(result.notFound()).containsExactly(999_999L);
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getStock()).isEqualTo(12);
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getStock()).isEqualTo(2);
+    }
+
+    @Test
+    void absoluteMode_lastValueWinsAndNegativeValuesAreRejected() {
+        List<Item> items = new ArrayList<>();
+        items.add(new Item(first.getId(), 0));
+        items.add(new Item(second.getId(), 40));
+        items.add(new Item(second.getId(), -1));
+
+        BulkStockUpdateResult result = productService.bulkUpdateStock(new BulkStockUpdateRequest(Mode.ABSOLUTE, items));
+
+        // Son değer (-1) geçersiz olduğu için ikinci ürün reddedilir; veritabanına hiç gitmez
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.rejected()).containsExactly(second.getId());
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getStock()).isZero();
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getStock()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,102 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.FlashSaleAdmission;
+import com.tkemre.ecommerce.checkout.OrderCheckout;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Tek bir sıcak ürüne aynı anda çok sayıda alıcı geldiğinde stok kadar siparişin kabul edildiğini,
+// kalanların veritabanına gitmeden reddedildiğini doğrular
+@SpringBootTest(properties = "checkout.admission.enabled=true")
+class FlashSaleAdmissionTest extends CheckoutIntegrationTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 2000;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired private OrderCheckout orderCheckout;
+    @Autowired private FlashSaleAdmission flashSaleAdmission;
+    @Autowired private ProductService productService;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private Product console;
+
+    @BeforeEach
+    void setUp() {
+        console = saveProduct("Game Console", BigDecimal.TEN, INITIAL_STOCK);
+        flashSaleAdmission.promote(console.getId(), false);
+    }
+
+    @Test
+    void flashSale_admitsExactlyStockAndRejectsRestWithoutDatabase() throws Exception {
+        double rejectedBefore = meterRegistry.counter("checkout.admission.rejected").count();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        CreateOrderRequest request = orderRequest(item(console, 1));
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderCheckout.placeOrder(BUYER, request);
+                    succeeded.incrementAndGet();
+                } catch (OutOfStockException e) {
+                    outOfStock.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(outOfStock.get()).isEqualTo(ATTEMPTS - INITIAL_STOCK);
+        assertThat(orderRepository.count()).isEqualTo(INITIAL_STOCK);
+        assertThat(productRepository.findById(console.getId()).orElseThrow().getStock()).isZero();
+        // Reddedilen tüm istekler token aşamasında elendi (veritabanındaki koşullu UPDATE'e hiç ulaşmadı)
+        assertThat(meterRegistry.counter("checkout.admission.rejected").count() - rejectedBefore)
+                .isEqualTo(ATTEMPTS - INITIAL_STOCK);
+    }
+
+    @Test
+    void restock_isPickedUpByTokens() {
+        orderCheckout.placeOrder(BUYER, orderRequest(item(console, INITIAL_STOCK)));
+        CreateOrderRequest one = orderRequest(item(console, 1));
+        assertThatThrownBy(() -> orderCheckout.placeOrder(BUYER, one))
+                .isInstanceOf(OutOfStockException.class);
+
+        // Admin stoğu artırınca token'lar veritabanından yeniden senkronize edilir
+        productService.updateProductStock(console.getId(), 1);
+        orderCheckout.placeOrder(BUYER, one);
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+        assertThat(productRepository.findById(console.getId()).orElseThrow().getStock()).isZero();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.GroupCommitCheckout;
+import com.tkemre.ecommerce.checkout.OrderCheckout;
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.exception.OrderPipelineShutdownException;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import com.tkemre.ecommerce.exception.ProductNotFoundException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
+import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Grup commit: aynı batch'e düşen siparişlerden başarısız olanların diğerlerini geri almadığını ve committer
+// durduğunda hiçbir siparişin askıda kalmadığını doğrular
+@SpringBootTest(properties = {
+        "checkout.group-commit.enabled=true",
+        "checkout.group-commit.max-batch-size=16",
+        "checkout.group-commit.linger=PT0.005S"})
+class GroupCommitCheckoutTest extends CheckoutIntegrationTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+    private static final int INITIAL_STOCK = 300;
+
+    @Autowired private OrderCheckout orderCheckout;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private Product tablet;
+
+    @BeforeEach
+    void setUp() {
+        tablet = saveProduct("Tablet", BigDecimal.TEN, INITIAL_STOCK);
+    }
+
+    @Test
+    void concurrentOrders_failingOrdersAreRejectedAlone() throws Exception {
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger notFound = new AtomicInteger();
+        Set<Long> orderIds = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            // Her 10. sipariş olmayan bir ürün içerir; stok da 300'de tükenir
+            Long productId = i % 10 == 9 ? Long.MAX_VALUE : tablet.getId();
+            CreateOrderRequest request = orderRequest(new CreateOrderItemRequest(productId, 1));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    OrderDto order = orderCheckout.placeOrder(BUYER, request);
+                    orderIds.add(order.id());
+                } catch (OutOfStockException e) {
+                    outOfStock.incrementAndGet();
+                } catch (ProductNotFoundException e) {
+                    notFound.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        DistributionSummary batchSizes = meterRegistry.get("checkout.group-commit.batch.size").summary();
+        assertThat(notFound.get()).isEqualTo(ATTEMPTS / 10);
+        assertThat(orderIds).hasSize(ATTEMPTS - ATTEMPTS / 10 - outOfStock.get());
+        assertThat(new HashSet<>(orderRepository.findAll().stream().map(Order::getId).toList())).isEqualTo(orderIds);
+        assertThat(productRepository.findById(tablet.getId()).orElseThrow().getStock())
+                .isEqualTo(INITIAL_STOCK - orderIds.size());
+        assertThat(batchSizes.max()).isGreaterThan(1);
+    }
+
+    @Test
+    void submitAfterShutdown_isRejected() throws Exception {
+        GroupCommitCheckout checkout = standalone(mock(PlatformTransactionManager.class));
+        checkout.shutdown();
+
+        assertThatThrownBy(() -> checkout.submit(BUYER, orderRequest(item(tablet, 1)), null))
+                .isInstanceOf(OrderPipelineShutdownException.class);
+    }
+
+    @Test
+    void committerDyingWithAnError_failsItsBatchAndRejectsNewOrders() throws Exception {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenThrow(new Error("simulated"));
+        GroupCommitCheckout checkout = standalone(transactionManager);
+        try {
+            // Bekleyen istek askıda kalmaz: committer'ın ölümüyle birlikte reddedilir
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThatThrownBy(() -> checkout.submit(BUYER, orderRequest(item(tablet, 1)), null))
+                            .isInstanceOf(OrderPipelineShutdownException.class));
+            assertThatThrownBy(() -> checkout.submit(BUYER, orderRequest(item(tablet, 1)), null))
+                    .isInstanceOf(OrderPipelineShutdownException.class);
+        } finally {
+            checkout.shutdown();
+        }
+    }
+
+    // Spring bağlamındaki örneği kapatmamak için testin kendi committer'ı
+    private GroupCommitCheckout standalone(PlatformTransactionManager transactionManager) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<InventoryLedger> noLedger = mock(ObjectProvider.class);
+        return new GroupCommitCheckout(mock(OrderService.class), mock(DataSource.class), mock(EntityManager.class),
+                noLedger, transactionManager, 16, Duration.ofMillis(5), new SimpleMeterRegistry());
+    }
+}
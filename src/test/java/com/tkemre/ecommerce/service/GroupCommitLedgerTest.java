@@ -0,0 +1,112 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.GroupCommitCheckout;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
+import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.OutboxEvent;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.outbox.OrderEventOutbox;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+// Grup commit + stok defteri: batch'in ortasındaki sipariş stoğu ayırdıktan sonra başarısız olursa yalnızca onun
+// ayırması stoğa döner; diğer siparişler aynı işlemde commit edilir
+@SpringBootTest(properties = {
+        "checkout.group-commit.enabled=true",
+        "checkout.group-commit.max-batch-size=3",
+        "checkout.group-commit.linger=PT5S",
+        "inventory.ledger.enabled=true",
+        "inventory.ledger.journal-path=target/ledger/${random.uuid}.journal",
+        "outbox.enabled=true",
+        "outbox.dispatch-interval=PT1H"})
+class GroupCommitLedgerTest extends CheckoutIntegrationTest {
+
+    @Autowired private GroupCommitCheckout groupCommitCheckout;
+    @Autowired private InventoryLedger inventoryLedger;
+    @Autowired private MeterRegistry meterRegistry;
+    @SpyBean private OrderEventOutbox orderEventOutbox;
+
+    @Test
+    void memberFailingAfterReservingStock_releasesOnlyItsReservation() throws Exception {
+        Product lamp = saveProduct("Lamp", BigDecimal.TEN, 10);
+        // 2 adetlik sipariş stoğu ayırdıktan sonra, olayı outbox'a yazılırken başarısız olur
+        doThrow(new IllegalStateException("Outbox payload could not be serialized"))
+                .when(orderEventOutbox).appendAll(eq(OutboxEvent.Type.CREATED), argThat(orders -> totalQuantity(orders) == 2), any());
+        double fallbacks = fallbacks();
+
+        CompletableFuture<OrderDto> first = submit(orderRequest(item(lamp, 1)), null);
+        CompletableFuture<OrderDto> middle = submit(orderRequest(item(lamp, 2)), null);
+        CompletableFuture<OrderDto> last = submit(orderRequest(item(lamp, 3)), null);
+
+        assertThat(first.get(30, TimeUnit.SECONDS).id()).isNotNull();
+        assertThat(last.get(30, TimeUnit.SECONDS).id()).isNotNull();
+        assertThatThrownBy(() -> middle.get(30, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        // Batch tek tek yeniden denenmedi: başarısız sipariş savepoint'e geri alındı, diğerleri birlikte commit edildi
+        assertThat(fallbacks()).isEqualTo(fallbacks);
+        assertThat(orderRepository.count()).isEqualTo(2);
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+        assertThat(inventoryLedger.available(lamp.getId())).isEqualTo(6);
+        assertThat(inventoryLedger.reserved(lamp.getId())).isZero();
+        inventoryLedger.flush();
+        assertThat(productRepository.findById(lamp.getId()).orElseThrow().getStock()).isEqualTo(6);
+    }
+
+    @Test
+    void memberFailingInFlush_batchIsRetriedWithoutLeakingReservations() throws Exception {
+        Product desk = saveProduct("Desk", BigDecimal.TEN, 10);
+
+        // Ortadaki aynı Idempotency-Key ile başka bir istek: ayırmadan sonra flush'ta unique kısıtına takılır.
+        // JPA bu durumda işlemi rollback-only işaretler; batch geri alınır ve siparişler tek tek yeniden denenir.
+        CompletableFuture<OrderDto> first = submit(orderRequest(item(desk, 1)), "key-1");
+        CompletableFuture<OrderDto> middle = submit(orderRequest(item(desk, 2)), "key-1");
+        CompletableFuture<OrderDto> last = submit(orderRequest(item(desk, 3)), null);
+
+        assertThat(first.get(30, TimeUnit.SECONDS).id()).isNotNull();
+        assertThat(last.get(30, TimeUnit.SECONDS).id()).isNotNull();
+        assertThatThrownBy(() -> middle.get(30, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+        assertThat(inventoryLedger.available(desk.getId())).isEqualTo(6);
+        assertThat(inventoryLedger.reserved(desk.getId())).isZero();
+    }
+
+    private CompletableFuture<OrderDto> submit(CreateOrderRequest request, String idempotencyKey) throws InterruptedException {
+        CompletableFuture<OrderDto> result = CompletableFuture.supplyAsync(
+                () -> groupCommitCheckout.submit(BUYER, request, idempotencyKey));
+        Thread.sleep(200); // Kuyruk sırasını sabitler (linger batch'i bu sürede kapatmaz)
+        return result;
+    }
+
+    private double fallbacks() {
+        return meterRegistry.counter("checkout.group-commit.fallbacks").count();
+    }
+
+    private static int totalQuantity(Collection<Order> orders) {
+        return orders.stream().flatMap(order -> order.getOrderItems().stream()).mapToInt(item -> item.getQuantity()).sum();
+    }
+}
@@ -0,0 +1,91 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.IdempotentOrders;
+import com.tkemre.ecommerce.checkout.OrderCheckout;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.exception.IdempotencyKeyReuseException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Aynı Idempotency-Key ile yapılan tekrarların (sıralı, eşzamanlı ve yeniden başlatma sonrası) tek sipariş ürettiğini doğrular
+class IdempotentOrderTest extends CheckoutIntegrationTest {
+
+    @Autowired private OrderCheckout orderCheckout;
+    @Autowired private OrderService orderService;
+
+    private CreateOrderRequest request;
+    private Product headphones;
+
+    @BeforeEach
+    void setUp() {
+        headphones = saveProduct("Headphones", BigDecimal.TEN, 100);
+        request = orderRequest(item(headphones, 2));
+    }
+
+    @Test
+    void concurrentAndRepeatedRetries_createSingleOrder() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<OrderDto>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderCheckout.placeOrder(BUYER, request, "key-1");
+            }));
+        }
+        start.countDown();
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<OrderDto> future : futures) {
+            orderIds.add(future.get(30, TimeUnit.SECONDS).id());
+        }
+        executor.shutdown();
+        orderIds.add(orderCheckout.placeOrder(BUYER, request, "key-1").id());
+
+        assertThat(orderIds).containsOnly(orderIds.get(0));
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(productRepository.findById(headphones.getId()).orElseThrow().getStock()).isEqualTo(98);
+    }
+
+    @Test
+    void replayAfterRestart_isAnsweredFromPersistedRecord() {
+        OrderDto original = orderCheckout.placeOrder(BUYER, request, "key-2");
+
+        // Boş cache ile yeni bir örnek: yeniden başlatılmış uygulama
+        IdempotentOrders restarted = new IdempotentOrders(orderService, idempotencyRecordRepository,
+                100, Duration.ofMinutes(1), Duration.ofDays(1), new SimpleMeterRegistry());
+        OrderDto replayed = restarted.execute(BUYER, "key-2", request, () -> {
+            throw new AssertionError("Order must not be created again");
+        });
+
+        assertThat(replayed.id()).isEqualTo(original.id());
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequest_isRejected() {
+        orderCheckout.placeOrder(BUYER, request, "key-3");
+        CreateOrderRequest different = orderRequest(item(headphones, 5));
+
+        assertThatThrownBy(() -> orderCheckout.placeOrder(BUYER, different, "key-3"))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.CursorPage;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.exception.InvalidCursorException;
+import com.tkemre.ecommerce.exception.InvalidSortException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Fiyatlar bilerek tekrar ediyor; eşit fiyatlarda sıralamayı id belirler
+            productRepository.save(Product.builder()
+                    .name("Seek Product " + i)
+                    .category("Seek")
+                    .price(BigDecimal.valueOf(i % 5))
+                    .stock(1)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void scrollProducts_visitsEveryRowOnceInSortOrderWithoutCountQueries() {
+        List<ProductDto> visited = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+
+        do {
+            statistics.clear();
+            CursorPage<ProductDto> page = productService.scrollProducts(
+                    KeysetCursor.of(token, new String[]{"price", "asc"}, KeysetCursor.PRODUCT_SORT_FIELDS), 10);
+            // Her sayfa tek bir seek sorgusudur; OFFSET veya COUNT yoktur
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            visited.addAll(page.content());
+            token = page.nextCursor();
+            pages++;
+        } while (token != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(visited).hasSize(PRODUCTS);
+        assertThat(visited).extracting(ProductDto::id).doesNotHaveDuplicates();
+        assertThat(visited).isSortedAccordingTo(Comparator.comparing(ProductDto::price).thenComparing(ProductDto::id));
+    }
+
+    @Test
+    void cursor_rejectsUnknownSortFieldsAndTamperedTokens() {
+        assertThatThrownBy(() -> KeysetCursor.of(null, new String[]{"stock", "asc"}, KeysetCursor.PRODUCT_SORT_FIELDS))
+                .isInstanceOf(InvalidSortException.class);
+        assertThatThrownBy(() -> KeysetCursor.of("not-a-cursor", new String[]{"id"}, KeysetCursor.PRODUCT_SORT_FIELDS))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursor_rejectsKeysThatDoNotMatchItsSort() {
+        String[] sort = {"price", "asc"};
+        // Geçerli: sıralama alanı + id
+        assertThat(KeysetCursor.of(token("{\"_sort\":\"price,asc\",\"price\":\"2\",\"id\":\"7\"}"), sort,
+                KeysetCursor.PRODUCT_SORT_FIELDS).position().isInitial()).isFalse();
+
+        for (String json : List.of(
+                "{\"_sort\":\"price,asc\",\"price\":\"2\"}",                          // id eksik
+                "{\"_sort\":\"price,asc\",\"id\":\"7\"}",                             // sıralama alanı eksik
+                "{\"_sort\":\"price,asc\",\"price\":\"2\",\"name\":\"a\",\"id\":\"7\"}", // fazladan alan
+                "{\"_sort\":\"price,asc\",\"price\":null,\"id\":\"7\"}",            // boş değer
+                "{\"_sort\":\"stock,asc\",\"stock\":\"2\",\"id\":\"7\"}")) {        // bilinmeyen sıralama
+            assertThatThrownBy(() -> KeysetCursor.of(token(json), sort, KeysetCursor.PRODUCT_SORT_FIELDS))
+                    .as(json)
+                    .isInstanceOf(InvalidCursorException.class);
+        }
+    }
+
+    private static String token(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
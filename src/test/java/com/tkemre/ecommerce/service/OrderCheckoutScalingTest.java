@@ -0,0 +1,64 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sipariş satır sayısı arttıkça veritabanı round-trip'lerinin artmadığını doğrular
+class OrderCheckoutScalingTest extends CheckoutIntegrationTest {
+
+    private static final int LARGE_ORDER_LINES = 40;
+
+    @Autowired private OrderService orderService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        products = new ArrayList<>();
+        for (int i = 0; i < LARGE_ORDER_LINES; i++) {
+            products.add(saveProduct("Bulk Product " + i, BigDecimal.TEN, 1_000));
+        }
+    }
+
+    @Test
+    void createOrder_roundTripsDoNotGrowWithLineCount() {
+        Counts single = checkout(1);
+        Counts large = checkout(LARGE_ORDER_LINES);
+
+        // Ürünler her iki durumda da tek bir sorguyla yüklenir
+        assertThat(large.queries()).isEqualTo(single.queries());
+        // order_items INSERT'leri tek batch'te gider; fark yalnızca orders_seq ve order_items_seq için
+        // birer blok yenilemesi (allocationSize = 50) olabilir
+        assertThat(large.statements() - single.statements()).isLessThanOrEqualTo(2);
+    }
+
+    private Counts checkout(int lines) {
+        CreateOrderItemRequest[] items = new CreateOrderItemRequest[lines];
+        for (int i = 0; i < lines; i++) {
+            items[i] = item(products.get(i), 1);
+        }
+
+        statistics.clear();
+        orderService.createOrder(BUYER, orderRequest(items));
+        return new Counts(statistics.getQueryExecutionCount(), statistics.getPrepareStatementCount());
+    }
+
+    private record Counts(long queries, long statements) {}
+}
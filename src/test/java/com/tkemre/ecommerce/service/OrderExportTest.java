@@ -0,0 +1,88 @@
+package com.tkemre.ecommerce.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dışa aktarımın siparişleri kalemleriyle eksiksiz yazdığını doğrular; küçük clear-interval ile
+// persistence context sipariş sınırlarında temizlenirken bile kalemler doğru siparişe gruplanmalıdır
+@SpringBootTest(properties = "order.export.clear-interval=3")
+class OrderExportTest extends CheckoutIntegrationTest {
+
+    @Autowired private OrderExportService orderExportService;
+    @Autowired private OrderService orderService;
+    @Autowired private ObjectMapper objectMapper;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        start = LocalDateTime.now().minusMinutes(1);
+        Product cable = saveProduct("Cable, \"USB-C\"", BigDecimal.ONE, 1000);
+        Product hub = saveProduct("Hub", BigDecimal.TEN, 1000);
+        for (int i = 0; i < 10; i++) {
+            orderService.createOrder(BUYER, orderRequest(item(cable, 2), item(hub, 1)));
+        }
+    }
+
+    @Test
+    void ndjsonExport_writesOneLinePerOrderWithItsItems() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = orderExportService.exportOrders(start, LocalDateTime.now().plusMinutes(1),
+                OrderExportService.Format.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(10);
+        assertThat(lines).hasSize(10);
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            assertThat(order.get("username").asText()).isEqualTo(BUYER);
+            assertThat(order.get("items")).hasSize(2);
+        }
+        // Siparişler id sırasıyla yazılır
+        List<Long> ids = lines.stream().map(this::readId).toList();
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void csvExport_writesOneRowPerItemAndQuotesFields() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderExportService.exportOrders(start, LocalDateTime.now().plusMinutes(1), OrderExportService.Format.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).startsWith("orderId,orderDate,status");
+        assertThat(lines).hasSize(1 + 20);
+        assertThat(lines).filteredOn(line -> line.contains("\"Cable, \"\"USB-C\"\"\"")).hasSize(10);
+    }
+
+    @Test
+    void export_outsideRange_isEmpty() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = orderExportService.exportOrders(start.minusDays(2), start.minusDays(1),
+                OrderExportService.Format.NDJSON, output);
+
+        assertThat(exported).isZero();
+        assertThat(output.size()).isZero();
+    }
+
+    private long readId(String line) {
+        try {
+            return objectMapper.readTree(line).get("id").asLong();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.OrderDto;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sipariş okuma uçlarının sayfa boyutu / kalem sayısından bağımsız, sabit sayıda sorgu attığını doğrular
+class OrderReadQueryCountTest extends CheckoutIntegrationTest {
+
+    @Autowired private OrderService orderService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            products.add(saveProduct("Read Product " + i, BigDecimal.ONE, 1_000));
+        }
+    }
+
+    @Test
+    void getUserOrders_queryCountDoesNotDependOnPageSize() {
+        for (int i = 0; i < 12; i++) {
+            placeOrder(3);
+        }
+
+        long smallPage = countStatements(() -> orderService.getUserOrders(BUYER, PageRequest.of(0, 2, Sort.by("orderDate"))));
+        long largePage = countStatements(() -> {
+            Page<OrderDto> page = orderService.getUserOrders(BUYER, PageRequest.of(0, 10, Sort.by("orderDate")));
+            assertThat(page.getContent()).hasSize(10);
+            assertThat(page.getContent()).allSatisfy(order -> assertThat(order.orderItems()).hasSize(3));
+        });
+
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void getOrderById_queryCountDoesNotDependOnItemCount() {
+        OrderDto singleItem = placeOrder(1);
+        OrderDto threeItems = placeOrder(3);
+
+        long single = countStatements(() -> orderService.getOrderById(singleItem.id(), BUYER));
+        long multiple = countStatements(() -> {
+            OrderDto order = orderService.getOrderById(threeItems.id(), BUYER);
+            assertThat(order.orderItems()).hasSize(3);
+        });
+
+        assertThat(multiple).isEqualTo(single);
+    }
+
+    private OrderDto placeOrder(int lines) {
+        CreateOrderItemRequest[] items = new CreateOrderItemRequest[lines];
+        for (int i = 0; i < lines; i++) {
+            items[i] = item(products.get(i), 1);
+        }
+        return orderService.createOrder(BUYER, orderRequest(items));
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -2,12 +2,16 @@ package com.tkemre.ecommerce.service;
 
 import com.tkemre.ecommerce.dto.*;
 import com.tkemre.ecommerce.exception.*;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
 import com.tkemre.ecommerce.model.*;
 import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.outbox.OrderEventOutbox;
 import com.tkemre.ecommerce.repository.*;
 
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
@@ -24,6 +28,10 @@ class OrderServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private ProductRepository productRepository;
     @Mock private AddressRepository addressRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ObjectProvider<InventoryLedger> inventoryLedger;
+    @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock private ObjectProvider<OrderEventOutbox> orderEventOutbox;
 
     @InjectMocks private OrderServiceImpl orderService;
 
@@ -52,7 +60,8 @@ class OrderServiceTest {
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         when(addressRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(address));
-        when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(Set.of(10L))).thenReturn(List.of(product));
+        when(productRepository.decrementStock(any())).thenReturn(new boolean[]{true});
         when(orderRepository.save(any(Order.class))).thenAnswer(inv -> {
             Order order = inv.getArgument(0);
             order.setId(100L);
@@ -63,10 +72,81 @@ class OrderServiceTest {
 
         assertThat(result.id()).isEqualTo(100L);
         assertThat(result.totalPrice()).isEqualTo(BigDecimal.valueOf(2000));
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository).decrementStock(new TreeMap<>(Map.of(10L, 2)));
         verify(orderItemRepository).saveAll(anySet());
     }
 
+    @Test
+    void createOrder_decrementsAggregatedQuantitiesInProductIdOrder() {
+        String username = "testuser";
+
+        User user = User.builder().id(1L).username(username).build();
+        Address address = Address.builder().id(1L).user(user).build();
+        Product mouse = Product.builder().id(3L).name("Mouse").price(BigDecimal.TEN).stock(10).build();
+        Product laptop = Product.builder().id(7L).name("Laptop").price(BigDecimal.valueOf(1000)).stock(5).build();
+
+        // Aynı ürün iki ayrı satırda; ürünler id sırasına göre gelmiyor
+        CreateOrderRequest orderRequest = new CreateOrderRequest(1L, List.of(
+                new CreateOrderItemRequest(7L, 1),
+                new CreateOrderItemRequest(3L, 2),
+                new CreateOrderItemRequest(7L, 2)));
+
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(addressRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(mouse, laptop));
+        when(productRepository.decrementStock(any())).thenReturn(new boolean[]{true, true});
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        OrderDto result = orderService.createOrder(username, orderRequest);
+
+        ArgumentCaptor<SortedMap<Long, Integer>> quantities = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productRepository).decrementStock(quantities.capture());
+        assertThat(quantities.getValue()).containsExactly(entry(3L, 2), entry(7L, 3));
+        assertThat(result.orderItems()).hasSize(3);
+    }
+
+    @Test
+    void createOrder_whenGuardedDecrementFails_throwsOutOfStock() {
+        String username = "testuser";
+
+        User user = User.builder().id(1L).username(username).build();
+        Address address = Address.builder().id(1L).user(user).build();
+        Product mouse = Product.builder().id(3L).name("Mouse").price(BigDecimal.TEN).stock(10).build();
+        Product laptop = Product.builder().id(7L).name("Laptop").price(BigDecimal.valueOf(1000)).stock(1).build();
+        CreateOrderRequest orderRequest = new CreateOrderRequest(1L, List.of(
+                new CreateOrderItemRequest(3L, 1),
+                new CreateOrderItemRequest(7L, 2)));
+
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(addressRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(mouse, laptop));
+        when(productRepository.decrementStock(any())).thenReturn(new boolean[]{true, false});
+
+        assertThatThrownBy(() -> orderService.createOrder(username, orderRequest))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessageContaining("Laptop");
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void createOrder_withUnknownProduct_throwsException() {
+        String username = "testuser";
+
+        User user = User.builder().id(1L).username(username).build();
+        Address address = Address.builder().id(1L).user(user).build();
+        CreateOrderRequest orderRequest = new CreateOrderRequest(1L, List.of(new CreateOrderItemRequest(99L, 1)));
+
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(addressRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> orderService.createOrder(username, orderRequest))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(productRepository, never()).decrementStock(any());
+    }
+
     @Test
     void createOrder_withEmptyItems_throwsException() {
         String username = "testuser";
@@ -99,7 +179,7 @@ class OrderServiceTest {
         UpdateOrderStatusRequest request = new UpdateOrderStatusRequest(OrderStatus.SHIPPED);
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any())).thenReturn(order);
+        when(orderRepository.saveAndFlush(any())).thenReturn(order);
 
         OrderDto result = orderService.updateOrderStatus(1L, request);
 
@@ -121,17 +201,19 @@ class OrderServiceTest {
     void cancelOrder_successful() {
         String username = "testuser";
         User user = User.builder().id(1L).username(username).build();
-        Product product = Product.builder().id(1L).stock(3).build();
-        OrderItem item = OrderItem.builder().product(product).quantity(2).build();
-        Order order = Order.builder().id(1L).status(OrderStatus.PENDING).user(user).orderItems(Set.of(item)).build();
+        Order order = Order.builder().id(1L).status(OrderStatus.PENDING).user(user).build();
+        OrderItemRepository.ProductSales sales = mock(OrderItemRepository.ProductSales.class);
+        when(sales.getProductId()).thenReturn(1L);
+        when(sales.getQuantity()).thenReturn(2L);
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(orderRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(order));
+        when(orderRepository.findForUpdateByIdAndUser(1L, user)).thenReturn(Optional.of(order));
+        when(orderItemRepository.sumQuantityByProductForOrders(List.of(1L))).thenReturn(List.of(sales));
 
         orderService.cancelOrder(1L, username);
 
         assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
-        verify(productRepository).save(product);
+        verify(productRepository).incrementStock(new TreeMap<>(Map.of(1L, 2)));
     }
 
     @Test
@@ -140,7 +222,7 @@ class OrderServiceTest {
         Order order = Order.builder().id(1L).status(OrderStatus.DELIVERED).user(user).build();
 
         when(userRepository.findByUsername("test")).thenReturn(Optional.of(user));
-        when(orderRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(order));
+        when(orderRepository.findForUpdateByIdAndUser(1L, user)).thenReturn(Optional.of(order));
 
         assertThatThrownBy(() -> orderService.cancelOrder(1L, "test"))
                 .isInstanceOf(IllegalArgumentException.class);
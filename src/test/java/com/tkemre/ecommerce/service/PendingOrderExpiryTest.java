@@ -0,0 +1,113 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.checkout.PendingOrderExpiry;
+import com.tkemre.ecommerce.model.Order;
+import com.tkemre.ecommerce.model.OrderStatus;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Süresi dolan PENDING siparişlerin batch'ler halinde iptal edildiğini ve stoğun geri bırakıldığını doğrular
+class PendingOrderExpiryTest extends CheckoutIntegrationTest {
+
+    @Autowired private OrderService orderService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        keyboard = saveProduct("Keyboard", BigDecimal.TEN, 100);
+        mouse = saveProduct("Mouse", BigDecimal.ONE, 100);
+    }
+
+    @Test
+    void expiredPendingOrders_areCanceledAndRestocked() {
+        // 5 eski PENDING sipariş (batch boyutu 2: üç batch), 1 eski PROCESSING ve 1 yeni PENDING sipariş
+        for (int i = 0; i < 5; i++) {
+            backdate(placeOrder(), OrderStatus.PENDING);
+        }
+        Long processing = backdate(placeOrder(), OrderStatus.PROCESSING);
+        Long fresh = placeOrder();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new PendingOrderExpiry(orderService, Duration.ofMinutes(30), 2, meterRegistry).expireStaleOrders();
+
+        assertThat(orderRepository.findAll())
+                .filteredOn(order -> order.getStatus() == OrderStatus.CANCELED)
+                .hasSize(5);
+        assertThat(orderRepository.findById(processing).orElseThrow().getStatus()).isEqualTo(OrderStatus.PROCESSING);
+        assertThat(orderRepository.findById(fresh).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+        // Yalnızca iptal edilen 5 siparişin kalemleri iade edilir; kalan 2 siparişin stoğu ayrılmış kalır
+        assertThat(productRepository.findById(keyboard.getId()).orElseThrow().getStock()).isEqualTo(100 - 2 * 2);
+        assertThat(productRepository.findById(mouse.getId()).orElseThrow().getStock()).isEqualTo(100 - 2 * 1);
+        assertThat(meterRegistry.counter("orders.pending.expired").count()).isEqualTo(5);
+        assertThat(meterRegistry.counter("orders.pending.released.units").count()).isEqualTo(15);
+        assertThat(meterRegistry.timer("orders.pending.expiry.lag").count()).isEqualTo(3);
+    }
+
+    @Test
+    void ordersCanceledByConcurrentBulkCancel_areSkippedAfterLocking() throws Exception {
+        // Tarih sırası id sırasının tersi: süre aşımı adayları tarihe göre seçer ama id sırasıyla kilitler
+        Long newer = backdate(placeOrder(), OrderStatus.PENDING, 1);
+        Long older = backdate(placeOrder(), OrderStatus.PENDING, 2);
+        CountDownLatch bulkCanceled = new CountDownLatch(1);
+        CountDownLatch commitBulk = new CountDownLatch(1);
+
+        CompletableFuture<Void> bulk = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    orderService.cancelOrders(List.of(newer, older));
+                    bulkCanceled.countDown();
+                    try {
+                        commitBulk.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(bulkCanceled.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Süre aşımı kilitleri bekler; toplu iptal commit edilince siparişleri CANCELED görür ve atlar
+        CompletableFuture<OrderService.ExpiredOrders> expiry = CompletableFuture.supplyAsync(
+                () -> orderService.expirePendingOrders(LocalDateTime.now().minusMinutes(30), 10));
+        Thread.sleep(200);
+        commitBulk.countDown();
+        bulk.get(10, TimeUnit.SECONDS);
+
+        assertThat(expiry.get(10, TimeUnit.SECONDS).orders()).isZero();
+        // Stok yalnızca toplu iptalde bir kez iade edilir
+        assertThat(productRepository.findById(keyboard.getId()).orElseThrow().getStock()).isEqualTo(100);
+        assertThat(productRepository.findById(mouse.getId()).orElseThrow().getStock()).isEqualTo(100);
+    }
+
+    private Long placeOrder() {
+        return orderService.createOrder(BUYER, orderRequest(item(keyboard, 2), item(mouse, 1))).id();
+    }
+
+    private Long backdate(Long orderId, OrderStatus status) {
+        return backdate(orderId, status, 1);
+    }
+
+    private Long backdate(Long orderId, OrderStatus status, int hours) {
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setOrderDate(LocalDateTime.now().minusHours(hours));
+        order.setStatus(status);
+        orderRepository.save(order);
+        return orderId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.FacetedProductsDto;
+import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.dto.ProductFacetFilter;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// catalog.facets.enabled kapalıyken (varsayılan) filtreleme veritabanında yapılır
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFacetFallbackTest {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = productRepository.saveAll(List.of(
+                product("Facet Lamp", "Home", "20.00", 5, true),
+                product("Facet Sofa", "Home", "750.00", 0, true),
+                product("Facet Novel", "Books", "60.00", 3, true),
+                product("Facet Atlas", "Books", "120.00", 1, false)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    private static Product product(String name, String category, String price, int stock, boolean active) {
+        return Product.builder().name(name).category(category).price(new BigDecimal(price)).stock(stock).active(active).build();
+    }
+
+    @Test
+    void filterProducts_withoutIndex_filtersInTheDatabaseWithoutCounts() {
+        FacetedProductsDto result = productService.filterProducts(ProductFacetFilter.builder()
+                .categories(Set.of("Home", "Books"))
+                .priceBands(Set.of("0-50", "100-250", "nonsense"))
+                .active(true)
+                .build(), PageRequest.of(0, 10));
+
+        assertThat(result.products().getContent()).extracting(ProductDto::name).containsExactly("Facet Lamp");
+        assertThat(result.facets()).isEmpty();
+    }
+
+    @Test
+    void filterProducts_withoutIndex_pagesInIdOrder() {
+        FacetedProductsDto result = productService.filterProducts(ProductFacetFilter.builder().inStock(true).build(),
+                PageRequest.of(1, 1));
+
+        assertThat(result.products().getTotalElements()).isEqualTo(3);
+        assertThat(result.products().getContent()).extracting(ProductDto::id).containsExactly(products.get(2).getId());
+    }
+}
@@ -0,0 +1,90 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.ProductImportResult;
+import com.tkemre.ecommerce.exception.InvalidImportFileException;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"product.import.batch-size=2", "product.import.commit-interval=2"})
+@ActiveProfiles("test")
+class ProductImportTest {
+
+    @Autowired private ProductImportService productImportService;
+    @Autowired private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importCsv_upsertsByNameAndReportsRowErrors() {
+        Product existing = productRepository.save(Product.builder()
+                .name("Import Keyboard").category("Old").price(BigDecimal.ONE).stock(1).build());
+
+        ProductImportResult result = productImportService.importProducts(stream("""
+                name,category,price,stock
+                import keyboard,Electronics,49.90,10
+                "Import Mouse, Wireless",Electronics,19.90,5
+
+                Import Broken,Electronics,-1,5
+                Import Cable,Electronics,abc,5
+                Import Desk,Furniture,150,2
+                """), ProductImportService.Format.CSV);
+
+        assertThat(result.processedRows()).isEqualTo(5);
+        assertThat(result.importedRows()).isEqualTo(3);
+        assertThat(result.failedRows()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ProductImportResult.RowError::line).containsExactly(5L, 6L);
+
+        // Ada göre eşleşen mevcut ürün güncellenir (id korunur, ad dosyadaki haliyle yazılır)
+        Product updated = productRepository.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getName()).isEqualTo("import keyboard");
+        assertThat(updated.getStock()).isEqualTo(10);
+        assertThat(productRepository.findByName("Import Mouse, Wireless")).isPresent();
+        assertThat(productRepository.count()).isEqualTo(3);
+
+        // Toplu yüklemenin ayırdığı id'ler JPA'nın sequence bloklarıyla çakışmaz
+        Product afterImport = productRepository.save(Product.builder()
+                .name("Import After").category("Other").price(BigDecimal.TEN).stock(1).build());
+        assertThat(productRepository.count()).isEqualTo(4);
+        assertThat(afterImport.getNormalizedName()).isEqualTo("import after");
+    }
+
+    @Test
+    void importNdjson_defaultsActiveAndAcceptsExplicitFlag() {
+        ProductImportResult result = productImportService.importProducts(stream("""
+                {"name":"Import Lamp","category":"Home","price":30,"stock":4}
+                {"name":"Import Vase","category":"Home","price":"12.5","stock":1,"active":false}
+                {"name":"Import Rug"
+                """), ProductImportService.Format.NDJSON);
+
+        assertThat(result.importedRows()).isEqualTo(2);
+        assertThat(result.errors()).singleElement().extracting(ProductImportResult.RowError::line).isEqualTo(3L);
+        assertThat(productRepository.findByName("Import Lamp").orElseThrow().getActive()).isTrue();
+        assertThat(productRepository.findByName("Import Vase").orElseThrow().getActive()).isFalse();
+    }
+
+    @Test
+    void importCsv_rejectsMissingHeaderColumns() {
+        assertThatThrownBy(() -> productImportService.importProducts(stream("name,price\nA,1\n"), ProductImportService.Format.CSV))
+                .isInstanceOf(InvalidImportFileException.class);
+    }
+}
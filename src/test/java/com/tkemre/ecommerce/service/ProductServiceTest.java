@@ -1,22 +1,35 @@
 package com.tkemre.ecommerce.service;
 
+import com.tkemre.ecommerce.cache.ProductCache;
+import com.tkemre.ecommerce.catalog.CatalogSnapshotService;
+import com.tkemre.ecommerce.catalog.ProductFacetIndex;
+import com.tkemre.ecommerce.catalog.ProductSearchIndex;
+import com.tkemre.ecommerce.catalog.ProductSuggestIndex;
 import com.tkemre.ecommerce.dto.CreateProductRequest;
 import com.tkemre.ecommerce.dto.ProductDto;
+import com.tkemre.ecommerce.dto.ProductSuggestionDto;
 import com.tkemre.ecommerce.dto.UpdateProductRequest;
+import com.tkemre.ecommerce.event.ProductChangedEvent;
 import com.tkemre.ecommerce.exception.ProductAlreadyExistsException;
 import com.tkemre.ecommerce.exception.ProductNotFoundException;
+import com.tkemre.ecommerce.inventory.InventoryLedger;
 import com.tkemre.ecommerce.model.Product;
 import com.tkemre.ecommerce.repository.ProductRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.junit.jupiter.api.AfterEach;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -27,7 +40,30 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<CatalogSnapshotService> catalogSnapshotService;
+
+    @Mock
+    private ObjectProvider<ProductSearchIndex> searchIndexProvider;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ObjectProvider<ProductSuggestIndex> suggestIndexProvider;
+
+    @Mock
+    private ObjectProvider<ProductFacetIndex> facetIndexProvider;
+
+    @Mock
+    private ObjectProvider<InventoryLedger> inventoryLedger;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     private ProductServiceImpl productService;
 
     private AutoCloseable closeable;
@@ -35,13 +71,16 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        // Aynı türden birden çok ObjectProvider olduğundan servis açıkça kurulur
+        productService = new ProductServiceImpl(productRepository, productCache, eventPublisher, catalogSnapshotService,
+                searchIndexProvider, suggestIndexProvider, facetIndexProvider, inventoryLedger);
     }
 
     @Test
     void createProduct_successful() {
         CreateProductRequest request = new CreateProductRequest("Product A", "Category A", BigDecimal.valueOf(100), 10);
 
-        when(productRepository.findByNameContainingIgnoreCase("Product A")).thenReturn(Collections.emptyList());
+        when(productRepository.existsByNormalizedName("product a")).thenReturn(false);
 
         Product savedProduct = Product.builder()
                 .id(1L)
@@ -52,7 +91,7 @@ class ProductServiceTest {
                 .active(true)
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(savedProduct);
 
         ProductDto result = productService.createProduct(request);
 
@@ -64,8 +103,20 @@ class ProductServiceTest {
     void createProduct_alreadyExists_throwsException() {
         CreateProductRequest request = new CreateProductRequest("Product A", "Category A", BigDecimal.TEN, 10);
 
-        Product existing = Product.builder().name("Product A").build();
-        when(productRepository.findByNameContainingIgnoreCase("Product A")).thenReturn(List.of(existing));
+        when(productRepository.existsByNormalizedName("product a")).thenReturn(true);
+
+        assertThatThrownBy(() -> productService.createProduct(request))
+                .isInstanceOf(ProductAlreadyExistsException.class);
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void createProduct_concurrentInsert_uniqueConstraintMapsToAlreadyExists() {
+        CreateProductRequest request = new CreateProductRequest("Product A", "Category A", BigDecimal.TEN, 10);
+
+        when(productRepository.existsByNormalizedName("product a")).thenReturn(false);
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_products_normalized_name"));
 
         assertThatThrownBy(() -> productService.createProduct(request))
                 .isInstanceOf(ProductAlreadyExistsException.class);
@@ -89,6 +140,30 @@ class ProductServiceTest {
                 .isInstanceOf(ProductNotFoundException.class);
     }
 
+    @Test
+    void getProductById_servesRepeatedReadsFromCache() {
+        Product product = Product.builder().id(1L).name("Product A").category("Category A").price(BigDecimal.TEN).stock(5).active(true).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.getProductById(1L);
+        productService.getProductById(1L);
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getProductById_reloadsAfterProductChangedEvent() {
+        Product product = Product.builder().id(1L).name("Product A").category("Category A").price(BigDecimal.TEN).stock(5).active(true).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.getProductById(1L);
+        productCache.onProductChanged(ProductChangedEvent.of(1L, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+        product.setStock(2);
+
+        assertThat(productService.getProductById(1L).stock()).isEqualTo(2);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
     @Test
     void getAllProducts_returnsPagedList() {
         Product product = Product.builder().id(1L).name("Product A").category("Category A").price(BigDecimal.TEN).stock(5).active(true).build();
@@ -113,14 +188,48 @@ class ProductServiceTest {
         assertThat(result.getContent()).hasSize(1);
     }
 
+    @Test
+    void searchProducts_keepsIndexRankingAndSkipsDeletedProducts() {
+        Product laptop = Product.builder().id(1L).name("Laptop").category("Electronics").price(BigDecimal.TEN).stock(5).active(true).build();
+        Product bag = Product.builder().id(3L).name("Laptop Bag").category("Accessories").price(BigDecimal.ONE).stock(2).active(true).build();
+        when(searchIndexProvider.getIfAvailable()).thenReturn(searchIndex);
+        when(searchIndex.search("laptop", 0, 10)).thenReturn(new ProductSearchIndex.SearchResult(List.of(3L, 2L, 1L), 3));
+        when(productRepository.findAllById(List.of(3L, 2L, 1L))).thenReturn(List.of(laptop, bag));
+
+        Page<ProductDto> result = productService.searchProducts("laptop", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(ProductDto::id).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void searchProducts_withoutIndex_fallsBackToNameQuery() {
+        Product laptop = Product.builder().id(1L).name("Laptop").category("Electronics").price(BigDecimal.TEN).stock(5).active(true).build();
+        when(productRepository.findAllByActiveTrueAndNormalizedNameContaining(eq("laptop"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(laptop)));
+
+        Page<ProductDto> result = productService.searchProducts(" Laptop", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(ProductDto::id).containsExactly(1L);
+    }
+
+    @Test
+    void suggestProducts_withoutIndex_fallsBackToPrefixQuery() {
+        Product keyboard = Product.builder().id(2L).name("Keyboard").category("Electronics").price(BigDecimal.TEN).stock(5).active(true).build();
+        when(productRepository.findByActiveTrueAndNormalizedNameStartingWithOrderByNormalizedNameAsc("key", Limit.of(5)))
+                .thenReturn(List.of(keyboard));
+
+        assertThat(productService.suggestProducts("Key", 5)).extracting(ProductSuggestionDto::id).containsExactly(2L);
+        assertThat(productService.suggestProducts("  ", 5)).isEmpty();
+    }
+
     @Test
     void updateProduct_successful() {
         Product existing = Product.builder().id(1L).name("Old Name").category("Cat").price(BigDecimal.TEN).stock(3).active(true).build();
         UpdateProductRequest request = new UpdateProductRequest("New Name", "Cat", BigDecimal.valueOf(50), 15, true);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(productRepository.findByNameContainingIgnoreCase("New Name")).thenReturn(Collections.emptyList());
-        when(productRepository.save(any(Product.class))).thenReturn(existing);
+        when(productRepository.existsByNormalizedNameAndIdNot("new name", 1L)).thenReturn(false);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(existing);
 
         ProductDto result = productService.updateProduct(1L, request);
 
@@ -130,11 +239,10 @@ class ProductServiceTest {
     @Test
     void updateProduct_nameConflict_throwsException() {
         Product existing = Product.builder().id(1L).name("Old Name").build();
-        Product other = Product.builder().name("New Name").build();
         UpdateProductRequest request = new UpdateProductRequest("New Name", "Cat", BigDecimal.TEN, 5, true);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(productRepository.findByNameContainingIgnoreCase("New Name")).thenReturn(List.of(other));
+        when(productRepository.existsByNormalizedNameAndIdNot("new name", 1L)).thenReturn(true);
 
         assertThatThrownBy(() -> productService.updateProduct(1L, request))
                 .isInstanceOf(ProductAlreadyExistsException.class);
@@ -163,6 +271,53 @@ class ProductServiceTest {
         ProductDto result = productService.updateProductStock(1L, 20);
 
         assertThat(result.stock()).isEqualTo(20);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(1L, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+    }
+
+    @Test
+    void updateProductStock_withLedger_returnsWrittenRow() {
+        InventoryLedger ledger = mock(InventoryLedger.class);
+        when(inventoryLedger.getIfAvailable()).thenReturn(ledger);
+        when(ledger.setAvailable(any())).thenReturn(new boolean[]{true});
+        when(ledger.flush()).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(
+                Optional.of(Product.builder().id(1L).stock(10).version(3).build()),
+                Optional.of(Product.builder().id(1L).stock(20).version(4).build()));
+
+        ProductDto result = productService.updateProductStock(1L, 20);
+
+        assertThat(result.stock()).isEqualTo(20);
+        assertThat(result.version()).isEqualTo(4L);
+        verify(ledger).setAvailable(new TreeMap<>(Map.of(1L, 20)));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void updateProductStock_withLedger_writeThroughFails_returnsLedgerStockAndPublishes() {
+        InventoryLedger ledger = mock(InventoryLedger.class);
+        when(inventoryLedger.getIfAvailable()).thenReturn(ledger);
+        when(ledger.setAvailable(any())).thenReturn(new boolean[]{true});
+        when(ledger.flush()).thenReturn(false);
+        when(ledger.available(1L)).thenReturn(20);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(Product.builder().id(1L).stock(10).version(3).build()));
+
+        ProductDto result = productService.updateProductStock(1L, 20);
+
+        assertThat(result.stock()).isEqualTo(20);
+        assertThat(result.version()).isEqualTo(3L);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(1L, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+    }
+
+    @Test
+    void updateProductStock_withLedger_productMissingFromLedger_throwsException() {
+        InventoryLedger ledger = mock(InventoryLedger.class);
+        when(inventoryLedger.getIfAvailable()).thenReturn(ledger);
+        when(ledger.setAvailable(any())).thenReturn(new boolean[]{false});
+        when(productRepository.findById(1L)).thenReturn(Optional.of(Product.builder().id(1L).stock(10).build()));
+
+        assertThatThrownBy(() -> productService.updateProductStock(1L, 20))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(ledger, never()).flush();
     }
 
     @Test
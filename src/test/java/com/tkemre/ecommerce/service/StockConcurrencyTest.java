@@ -0,0 +1,82 @@
+package com.tkemre.ecommerce.service;
+
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.exception.OutOfStockException;
+import com.tkemre.ecommerce.model.OrderItem;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.repository.OrderItemRepository;
+import com.tkemre.ecommerce.support.CheckoutIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Eşzamanlı siparişlerde stoğun asla eksiye düşmediğini (oversell olmadığını) doğrular
+class StockConcurrencyTest extends CheckoutIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 200;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired private OrderService orderService;
+    @Autowired private OrderItemRepository orderItemRepository;
+
+    private Product keyboard;
+    private Product monitor;
+
+    @BeforeEach
+    void setUp() {
+        keyboard = saveProduct("Keyboard", BigDecimal.TEN, INITIAL_STOCK);
+        monitor = saveProduct("Monitor", BigDecimal.TEN, INITIAL_STOCK);
+    }
+
+    @Test
+    void concurrentCheckouts_neverOversell() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            // Satır sırası istekler arasında değişiyor; kilitler yine de aynı sırada alınmalı
+            CreateOrderRequest request = i % 2 == 0
+                    ? orderRequest(item(keyboard, 1), item(monitor, 1))
+                    : orderRequest(item(monitor, 1), item(keyboard, 1));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(BUYER, request);
+                    succeeded.incrementAndGet();
+                } catch (OutOfStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS); // Beklenmeyen hata varsa burada fırlatılır
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - INITIAL_STOCK);
+        assertThat(productRepository.findById(keyboard.getId()).orElseThrow().getStock()).isZero();
+        assertThat(productRepository.findById(monitor.getId()).orElseThrow().getStock()).isZero();
+        assertThat(orderItemRepository.findAll().stream().mapToInt(OrderItem::getQuantity).sum())
+                .isEqualTo(2 * INITIAL_STOCK);
+    }
+}
@@ -0,0 +1,89 @@
+package com.tkemre.ecommerce.support;
+
+import com.tkemre.ecommerce.dto.CreateOrderItemRequest;
+import com.tkemre.ecommerce.dto.CreateOrderRequest;
+import com.tkemre.ecommerce.model.Address;
+import com.tkemre.ecommerce.model.Product;
+import com.tkemre.ecommerce.model.User;
+import com.tkemre.ecommerce.model.UserRole;
+import com.tkemre.ecommerce.repository.AddressRepository;
+import com.tkemre.ecommerce.repository.IdempotencyRecordRepository;
+import com.tkemre.ecommerce.repository.OrderRepository;
+import com.tkemre.ecommerce.repository.OutboxEventRepository;
+import com.tkemre.ecommerce.repository.ProductRepository;
+import com.tkemre.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+// Siparişi uçtan uca çalıştıran entegrasyon testleri için ortak veri: bir alıcı, teslimat adresi ve ürün yardımcıları.
+// Alt sınıflar yalnızca kendi senaryolarının ürünlerini oluşturur; sipariş tarafındaki tablolar her testten sonra temizlenir.
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class CheckoutIntegrationTest {
+
+    protected static final String BUYER = "buyer@example.com";
+
+    @Autowired protected UserRepository userRepository;
+    @Autowired protected AddressRepository addressRepository;
+    @Autowired protected ProductRepository productRepository;
+    @Autowired protected OrderRepository orderRepository;
+    @Autowired protected IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired protected OutboxEventRepository outboxEventRepository;
+
+    protected User buyer;
+    protected Address address;
+
+    @BeforeEach
+    protected void createBuyer() {
+        buyer = saveUser(BUYER);
+        address = addressRepository.save(Address.builder()
+                .user(buyer)
+                .street("Street 1")
+                .city("Izmir")
+                .state("Izmir")
+                .country("TR")
+                .postalCode("35000")
+                .build());
+    }
+
+    @AfterEach
+    protected void deleteCheckoutData() {
+        outboxEventRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    protected User saveUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .password("secret")
+                .email(username)
+                .firstName("Test")
+                .lastName("Buyer")
+                .roles(Set.of(UserRole.USER))
+                .build());
+    }
+
+    protected Product saveProduct(String name, BigDecimal price, int stock) {
+        return productRepository.save(Product.builder()
+                .name(name).category("Electronics").price(price).stock(stock).build());
+    }
+
+    protected static CreateOrderItemRequest item(Product product, int quantity) {
+        return new CreateOrderItemRequest(product.getId(), quantity);
+    }
+
+    // BUYER'ın adresine teslim edilecek sipariş isteği
+    protected CreateOrderRequest orderRequest(CreateOrderItemRequest... items) {
+        return new CreateOrderRequest(address.getId(), List.of(items));
+    }
+}